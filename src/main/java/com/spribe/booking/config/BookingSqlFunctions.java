@@ -0,0 +1,28 @@
+package com.spribe.booking.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * SQL functions for criteria queries that need Postgres range operators, which JPQL cannot express.
+ * Registered through {@code META-INF/services}.
+ */
+public class BookingSqlFunctions implements FunctionContributor {
+
+    /**
+     * {@code unit_free_between(unitId, startDate, endDate)}: true when the unit has no active booking overlapping
+     * the range, both ends inclusive. Tested on the GiST index of the {@code bookings_no_active_overlap}
+     * constraint, which is why the status list is literal.
+     */
+    public static final String UNIT_FREE_BETWEEN = "unit_free_between";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(UNIT_FREE_BETWEEN,
+                "(not exists (select 1 from bookings b where b.unit_id = ?1 "
+                        + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+                        + "and b.period && daterange(?2, ?3, '[]')))",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
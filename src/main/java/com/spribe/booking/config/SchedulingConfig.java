@@ -0,0 +1,13 @@
+package com.spribe.booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on {@code @Scheduled} jobs. They run on Spring Boot's auto-configured scheduler, which switches to
+ * virtual threads with {@code spring.threads.virtual.enabled}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,15 +1,35 @@
 package com.spribe.booking.controller;
 
-import com.spribe.booking.entity.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.booking.dto.BookingBatchRequest;
+import com.spribe.booking.dto.BookingExportRequest;
+import com.spribe.booking.dto.BookingRequestStatus;
+import com.spribe.booking.dto.BookingResponse;
 import com.spribe.booking.service.BookingService;
 import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.service.impl.AsyncBookingQueue;
+import com.spribe.booking.service.impl.BookingIdempotencyStore;
+import com.spribe.booking.service.impl.HotUnitBookingQueue;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @RestController
@@ -19,14 +39,100 @@ import org.springframework.web.bind.annotation.*;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final HotUnitBookingQueue hotUnitBookingQueue;
+    private final BookingIdempotencyStore idempotencyStore;
+    private final AsyncBookingQueue asyncBookingQueue;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Book a unit")
-    @ApiResponse(responseCode = "201", description = "Booking created")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Booking created, or replayed for a repeated Idempotency-Key",
+                    content = @Content(schema = @Schema(implementation = BookingResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request, or Idempotency-Key reused for a different request"),
+            @ApiResponse(responseCode = "409", description = "Unit not available, or a request with the same Idempotency-Key is still running")
+    })
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@RequestBody BookingCreateRequest request) {
-        log.info("Create booking called with request={}", request);
-        Booking booking = bookingService.bookUnit(request);
-        return ResponseEntity.status(201).body(booking);
+    public Object createBooking(
+            @RequestHeader(value = BookingIdempotencyStore.HEADER, required = false)
+            @Parameter(description = "Client-generated key; retries with the same key return the first booking") String idempotencyKey,
+            @RequestBody BookingCreateRequest request
+    ) {
+        log.info("Create booking called with request={}, idempotencyKey={}", request, idempotencyKey);
+        if (!hotUnitBookingQueue.isEnabled()) {
+            // a plain synchronous call: answered on this thread, without an async dispatch
+            BookingResponse booking = idempotencyKey == null
+                    ? BookingResponse.from(bookingService.bookUnit(request))
+                    : join(idempotencyStore.execute(idempotencyKey, request, () -> CompletableFuture.completedFuture(
+                            BookingResponse.from(bookingService.bookUnit(request)))));
+            return ResponseEntity.status(201).body(booking);
+        }
+        CompletableFuture<BookingResponse> booking = idempotencyKey == null
+                ? hotUnitBookingQueue.submit(request).thenApply(BookingResponse::from)
+                : idempotencyStore.execute(idempotencyKey, request,
+                        () -> hotUnitBookingQueue.submit(request).thenApply(BookingResponse::from));
+        return booking.thenApply(created -> ResponseEntity.status(201).body(created));
+    }
+
+    /**
+     * Waits for the booking, rethrowing its failure as is so the exception handler maps it like a direct call.
+     */
+    private static BookingResponse join(CompletableFuture<BookingResponse> booking) {
+        try {
+            return booking.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Operation(summary = "Queue a booking and return at once; poll the returned request for the outcome")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Booking request queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "409", description = "Too many pending booking requests")
+    })
+    @PostMapping(params = "async=true")
+    public ResponseEntity<BookingRequestStatus> submitBooking(
+            @RequestParam @Parameter(description = "Must be true to queue the booking", example = "true") boolean async,
+            @RequestBody BookingCreateRequest request
+    ) {
+        log.info("Submit booking called with request={}", request);
+        BookingRequestStatus status = asyncBookingQueue.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/bookings/requests/" + status.getId()))
+                .body(status);
+    }
+
+    @Operation(summary = "Get the state of a queued booking request, optionally waiting for it to complete")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Current state; QUEUED if still pending when the wait ends"),
+            @ApiResponse(responseCode = "404", description = "Booking request not found or expired")
+    })
+    @GetMapping("/requests/{requestId}")
+    public CompletableFuture<ResponseEntity<BookingRequestStatus>> getBookingRequest(
+            @PathVariable String requestId,
+            @RequestParam(defaultValue = "0")
+            @Parameter(description = "Seconds to wait for the outcome, at most 30", example = "10") long waitSeconds
+    ) {
+        log.info("Get booking request called with requestId={}, waitSeconds={}", requestId, waitSeconds);
+        return asyncBookingQueue.await(requestId, Duration.ofSeconds(waitSeconds)).thenApply(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Book several units at once")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "All bookings created"),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "404", description = "Unit or user not found"),
+            @ApiResponse(responseCode = "409", description = "A unit is not available; nothing was booked")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingResponse>> createBookings(@RequestBody BookingBatchRequest request) {
+        log.info("Create bookings called with request={}", request);
+        return ResponseEntity.status(201).body(bookingService.bookUnits(request.getBookings()).stream()
+                .map(BookingResponse::from)
+                .toList());
     }
 
     @Operation(summary = "Pay for a booking")
@@ -61,4 +167,17 @@ public class BookingController {
         bookingService.autoExpireUnpaidBookings();
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Stream every booking matching the filters as NDJSON")
+    @ApiResponse(responseCode = "200", description = "Bookings streamed, one JSON object per line")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookings(@ParameterObject @ModelAttribute BookingExportRequest request) {
+        log.info("Export bookings called with unitId={}, userId={}, status={}",
+                request.getUnitId(), request.getUserId(), request.getStatus());
+        StreamingResponseBody body = out -> {
+            bookingService.exportBookings(request, new NdjsonWriter<>(objectMapper, out));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
@@ -0,0 +1,33 @@
+package com.spribe.booking.controller;
+
+import com.spribe.booking.dto.JobLeaseStats;
+import com.spribe.booking.service.impl.JobLeaseCoordinator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/jobs")
+@Tag(name = "Jobs", description = "Cluster-wide scheduled jobs")
+public class JobController {
+
+    private final JobLeaseCoordinator jobLeaseCoordinator;
+
+    @Operation(summary = "Get the lease of every cluster-wide job and this node's run counters")
+    @ApiResponse(responseCode = "200", description = "Job leases")
+    @GetMapping("/leases")
+    public ResponseEntity<List<JobLeaseStats>> getJobLeases() {
+        log.info("Get job leases called");
+        return ResponseEntity.ok(jobLeaseCoordinator.getStats());
+    }
+}
@@ -1,10 +1,17 @@
 package com.spribe.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.booking.dto.AvailabilityCacheStats;
+import com.spribe.booking.dto.UnitAvailabilityRequest;
+import com.spribe.booking.dto.UnitCalendarResponse;
 import com.spribe.booking.dto.UnitFilterRequest;
 import com.spribe.booking.dto.UnitResponse;
 import com.spribe.booking.dto.UnitCreateRequest;
 import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitImportResponse;
 import com.spribe.booking.entity.Unit;
+import com.spribe.booking.enums.UnitImportFormat;
+import com.spribe.booking.service.UnitAvailabilityCacheService;
 import com.spribe.booking.service.UnitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,10 +20,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -26,6 +39,8 @@ import java.time.LocalDate;
 public class UnitController {
 
     private final UnitService unitService;
+    private final UnitAvailabilityCacheService cacheService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Create a new unit")
     @ApiResponses({
@@ -39,6 +54,25 @@ public class UnitController {
         return ResponseEntity.status(201).body(created);
     }
 
+    @Operation(summary = "Create many units from a streamed CSV or NDJSON upload")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Valid rows imported, invalid rows reported"),
+            @ApiResponse(responseCode = "400", description = "Upload cannot be parsed"),
+            @ApiResponse(responseCode = "404", description = "Owner not found")
+    })
+    @PostMapping(value = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<UnitImportResponse> importUnits(
+            @RequestParam @Parameter(description = "Owner of every imported unit", example = "1") Long ownerId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) {
+        log.info("Import units called with ownerId={}, contentType={}", ownerId, contentType);
+        UnitImportFormat format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? UnitImportFormat.NDJSON
+                : UnitImportFormat.CSV;
+        return ResponseEntity.ok(unitService.importUnits(ownerId, format, body));
+    }
+
     @Operation(summary = "Search available units with filters")
     @ApiResponse(responseCode = "200", description = "Units found")
     @PostMapping("/search")
@@ -48,6 +82,45 @@ public class UnitController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Check availability of many units in a date range at once")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Map of unit id to availability; unknown ids are omitted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    @PostMapping("/availability")
+    public ResponseEntity<Map<Long, Boolean>> checkAvailability(@RequestBody UnitAvailabilityRequest request) {
+        log.info("Check availability called with request={}", request);
+        return ResponseEntity.ok(unitService.checkAvailability(request));
+    }
+
+    @Operation(summary = "Get day-by-day availability of a unit")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Calendar returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "404", description = "Unit not found")
+    })
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<UnitCalendarResponse> getCalendar(
+            @PathVariable Long id,
+            @RequestParam @Parameter(description = "First day", example = "2025-08-01") LocalDate from,
+            @RequestParam @Parameter(description = "Last day", example = "2025-08-31") LocalDate to
+    ) {
+        log.info("Get calendar called with unitId={}, from={}, to={}", id, from, to);
+        return ResponseEntity.ok(unitService.getCalendar(id, from, to));
+    }
+
+    @Operation(summary = "Stream every unit matching the filters as NDJSON; paging and sorting are ignored")
+    @ApiResponse(responseCode = "200", description = "Units streamed, one JSON object per line")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUnits(@ParameterObject @ModelAttribute UnitFilterRequest request) {
+        log.info("Export units called with request={}", request);
+        StreamingResponseBody body = out -> {
+            unitService.exportUnits(request, new NdjsonWriter<>(objectMapper, out));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Get count of available units in date range")
     @ApiResponse(responseCode = "200", description = "Available count returned")
     @GetMapping("/available-count")
@@ -59,4 +132,12 @@ public class UnitController {
         long count = unitService.getAvailableUnitCount(start, end);
         return ResponseEntity.ok(count);
     }
+
+    @Operation(summary = "Get hit, miss and eviction counters of the available-count caches")
+    @ApiResponse(responseCode = "200", description = "Cache statistics returned")
+    @GetMapping("/available-count/cache-stats")
+    public ResponseEntity<AvailabilityCacheStats> getAvailableCountCacheStats() {
+        log.info("Get available count cache stats called");
+        return ResponseEntity.ok(cacheService.getStats());
+    }
 }
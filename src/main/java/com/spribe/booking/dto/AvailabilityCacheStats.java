@@ -0,0 +1,20 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Hit, miss and eviction counters of the local (L1) and Redis (L2) availability caches")
+public class AvailabilityCacheStats {
+    private long localHits;
+    private long localMisses;
+    private long localEvictions;
+    private long localSize;
+    private long redisHits;
+    private long redisMisses;
+    private long redisEvictions;
+}
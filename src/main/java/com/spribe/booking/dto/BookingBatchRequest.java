@@ -0,0 +1,14 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Multi-unit booking request object; either every booking is created or none is")
+public class BookingBatchRequest {
+
+    @Schema(description = "Bookings to create, at most 500")
+    private List<BookingCreateRequest> bookings;
+}
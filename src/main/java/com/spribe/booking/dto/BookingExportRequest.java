@@ -0,0 +1,29 @@
+package com.spribe.booking.dto;
+
+import com.spribe.booking.enums.BookingStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Schema(description = "Booking export filter; every field is optional")
+public class BookingExportRequest {
+
+    @Schema(description = "Unit ID")
+    private Long unitId;
+
+    @Schema(description = "User ID")
+    private Long userId;
+
+    @Schema(description = "Booking status", example = "PAID")
+    private BookingStatus status;
+
+    @Schema(description = "Only bookings overlapping a range starting on this date", example = "2025-08-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Only bookings overlapping a range ending on this date", example = "2025-08-31")
+    private LocalDate endDate;
+}
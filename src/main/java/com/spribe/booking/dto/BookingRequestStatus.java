@@ -0,0 +1,34 @@
+package com.spribe.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.spribe.booking.enums.BookingRequestState;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "State of an asynchronously submitted booking request")
+public class BookingRequestStatus {
+    @Schema(description = "Booking request id", example = "0f8fad5b-d9cb-469f-a165-70867728950e")
+    private String id;
+    @Schema(description = "Request state", example = "SUCCEEDED")
+    private BookingRequestState state;
+    @Schema(description = "Created booking, once the request succeeded", example = "42")
+    private Long bookingId;
+    @Schema(description = "HTTP status the synchronous call would have returned on failure", example = "409")
+    private Integer errorStatus;
+    @Schema(description = "Failure reason", example = "Unit is not available for the selected dates.")
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+
+    @JsonIgnore
+    public boolean isDone() {
+        return state != BookingRequestState.QUEUED;
+    }
+}
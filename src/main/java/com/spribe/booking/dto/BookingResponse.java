@@ -0,0 +1,34 @@
+package com.spribe.booking.dto;
+
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.enums.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingResponse {
+    private Long id;
+    private Long unitId;
+    private Long userId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+    private LocalDateTime createdAt;
+
+    /**
+     * Reads only the ids of the unit and user, which a lazy proxy answers without loading, so a booking can be
+     * mapped after its transaction has ended.
+     */
+    public static BookingResponse from(Booking booking) {
+        return new BookingResponse(booking.getId(), booking.getUnit().getId(), booking.getUser().getId(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus(), booking.getCreatedAt());
+    }
+}
@@ -0,0 +1,35 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lease of a cluster-wide job and this node's counters for it")
+public class JobLeaseStats {
+    @Schema(description = "Job name", example = "expire-unpaid-bookings")
+    private String jobName;
+    @Schema(description = "Whether this node holds the lease")
+    private boolean leader;
+    @Schema(description = "Node holding the lease, if any")
+    private String owner;
+    @Schema(description = "Fencing token of the current lease")
+    private Long fencingToken;
+    @Schema(description = "End of the current lease")
+    private LocalDateTime leasedUntil;
+    @Schema(description = "Runs on this node")
+    private long runs;
+    @Schema(description = "Runs skipped on this node because another node held the lease")
+    private long skipped;
+    @Schema(description = "Times this node took over the lease")
+    private long acquisitions;
+    @Schema(description = "Runs on this node that threw")
+    private long failures;
+    @Schema(description = "Duration of the last run on this node in milliseconds")
+    private long lastRunMillis;
+}
@@ -10,7 +10,16 @@ import java.util.List;
 @AllArgsConstructor
 public class PaginatedResponse<T> {
     private List<T> content;
-    private long totalElements;
+    /** {@code null} when the client asked to skip the count. */
+    private Long totalElements;
     private int page;
     private int size;
-} 
\ No newline at end of file
+    /** Opaque cursor for the next page in cursor mode, {@code null} on the last page. */
+    private String nextCursor;
+    /** Facet counts over the whole filter, {@code null} unless requested. */
+    private UnitFacets facets;
+
+    public PaginatedResponse(List<T> content, Long totalElements, int page, int size) {
+        this(content, totalElements, page, size, null, null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Schema(description = "Bulk availability check request object")
+public class UnitAvailabilityRequest {
+
+    @Schema(description = "Unit IDs to check, at most 500", example = "[1, 2, 3]")
+    private List<Long> unitIds;
+
+    @Schema(description = "Start date", example = "2025-08-01")
+    private LocalDate startDate;
+
+    @Schema(description = "End date", example = "2025-08-10")
+    private LocalDate endDate;
+}
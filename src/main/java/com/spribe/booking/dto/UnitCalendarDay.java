@@ -0,0 +1,19 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Availability of a unit on one day")
+public class UnitCalendarDay {
+    @Schema(description = "Day", example = "2025-08-01")
+    private LocalDate date;
+    @Schema(description = "Whether no active booking holds the unit on this day", example = "true")
+    private boolean available;
+}
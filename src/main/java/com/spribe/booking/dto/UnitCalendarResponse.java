@@ -0,0 +1,20 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Day-by-day availability of a unit")
+public class UnitCalendarResponse {
+    private Long unitId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<UnitCalendarDay> days;
+}
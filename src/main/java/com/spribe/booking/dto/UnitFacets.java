@@ -0,0 +1,20 @@
+package com.spribe.booking.dto;
+
+import com.spribe.booking.enums.UnitType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of units matching the filter per type, number of rooms and price bucket")
+public class UnitFacets {
+    private Map<UnitType, Long> byType;
+    private Map<Short, Long> byNumberOfRooms;
+    @Schema(description = "Keyed by bucket label; lower bound inclusive, upper bound exclusive", example = "{\"0-50\": 3, \"50-100\": 12}")
+    private Map<String, Long> byPriceBucket;
+}
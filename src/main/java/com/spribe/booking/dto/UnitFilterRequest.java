@@ -40,6 +40,20 @@ public class UnitFilterRequest {
     @Schema(description = "Page size", example = "10")
     private int size = 10;
 
+    @Schema(description = "Use cursor (keyset) pagination instead of page numbers; "
+            + "sortBy must be one of costPerDay, numberOfRooms, floor, id", example = "false")
+    private boolean cursorMode;
+
+    @Schema(description = "Cursor mode only: the nextCursor returned with the previous page, empty for the first page")
+    private String cursor;
+
+    @Schema(description = "Whether to compute totalElements; skipping it saves a count query", example = "true")
+    private boolean includeTotal = true;
+
+    @Schema(description = "Whether to return unit counts per type, number of rooms and price bucket for this filter",
+            example = "false")
+    private boolean facets;
+
     @Schema(description = "Search start date", example = "2025-08-01")
     private LocalDate startDate;
 
@@ -0,0 +1,17 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A row of a bulk unit import that was rejected")
+public class UnitImportError {
+    @Schema(description = "1-based row number within the upload, CSV header excluded", example = "42")
+    private long row;
+    @Schema(description = "Why the row was rejected", example = "numberOfRooms must be positive")
+    private String message;
+}
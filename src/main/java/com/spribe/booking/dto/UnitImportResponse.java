@@ -0,0 +1,21 @@
+package com.spribe.booking.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk unit import")
+public class UnitImportResponse {
+    @Schema(description = "Units created", example = "99998")
+    private long imported;
+    @Schema(description = "Rows rejected by validation", example = "2")
+    private long rejected;
+    @Schema(description = "Rejected rows, at most the first 1000")
+    private List<UnitImportError> errors;
+}
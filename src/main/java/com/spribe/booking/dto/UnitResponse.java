@@ -3,12 +3,14 @@ package com.spribe.booking.dto;
 import com.spribe.booking.entity.Unit;
 import com.spribe.booking.enums.UnitType;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class UnitResponse {
     private Long id;
     private String title;
@@ -18,6 +20,20 @@ public class UnitResponse {
     private int numberOfRooms;
     private int floor;
 
+    /**
+     * Used by JPQL/Criteria constructor expressions; column types follow the {@link Unit} mapping.
+     */
+    public UnitResponse(Long id, String title, String description, BigDecimal costPerDay, UnitType type,
+                        Short numberOfRooms, Short floor) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.costPerDay = costPerDay;
+        this.type = type;
+        this.numberOfRooms = numberOfRooms;
+        this.floor = floor;
+    }
+
     public static UnitResponse from(Unit unit) {
         UnitResponse dto = new UnitResponse();
         dto.id = unit.getId();
@@ -0,0 +1,7 @@
+package com.spribe.booking.enums;
+
+public enum BookingRequestState {
+    QUEUED,
+    SUCCEEDED,
+    FAILED
+}
@@ -1,9 +1,16 @@
 package com.spribe.booking.enums;
 
+import java.util.List;
+
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
     CANCELLED,
     PAID,
-    EXPIRED
+    EXPIRED;
+
+    /**
+     * Statuses that hold a unit for their date range.
+     */
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(PENDING, CONFIRMED, PAID);
 }
@@ -0,0 +1,6 @@
+package com.spribe.booking.enums;
+
+public enum UnitImportFormat {
+    CSV,
+    NDJSON
+}
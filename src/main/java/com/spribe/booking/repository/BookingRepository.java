@@ -1,11 +1,22 @@
 package com.spribe.booking.repository;
 
+import com.spribe.booking.dto.BookingResponse;
 import com.spribe.booking.entity.Booking;
 import com.spribe.booking.enums.BookingStatus;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.repository.projection.PendingBooking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
@@ -15,4 +26,94 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             LocalDate endDate,
             LocalDate startDate
     );
+
+    /**
+     * The booking if it belongs to the user; empty when it does not exist or is someone else's.
+     */
+    @Query("select b from Booking b where b.id = :bookingId and b.user.id = :userId")
+    Optional<Booking> findByIdAndUserId(@Param("bookingId") Long bookingId, @Param("userId") Long userId);
+
+    /**
+     * Whether an active booking of the unit overlaps the range, both ends inclusive. Runs against the generated
+     * {@code period} column with {@code &&}, so it is answered from the GiST index of the
+     * {@code bookings_no_active_overlap} constraint instead of scanning the unit's whole booking history; the
+     * status list must stay literal for the planner to match the index predicate.
+     */
+    @Query(value = "select exists (select 1 from bookings b where b.unit_id = :unitId "
+            + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]'))", nativeQuery = true)
+    boolean existsActiveOverlap(@Param("unitId") Long unitId,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    /**
+     * Takes the transaction-scoped Postgres advisory lock of the unit, waiting while another transaction holds it.
+     */
+    @Query(value = "select 1 from pg_advisory_xact_lock(:unitId)", nativeQuery = true)
+    Integer lockUnit(@Param("unitId") Long unitId);
+
+    /**
+     * Takes the advisory locks of all units in one round trip, in ascending id order so that two transactions
+     * locking overlapping sets cannot deadlock. The ordered subquery is not flattened, so the locks are taken
+     * in its order.
+     */
+    @Query(value = "select count(pg_advisory_xact_lock(l.id)) from ("
+            + "select distinct u.id from units u where u.id in (:unitIds) order by u.id) l", nativeQuery = true)
+    Long lockUnits(@Param("unitIds") Collection<Long> unitIds);
+
+    @Query("select b.id as id, b.unit.id as unitId, b.startDate as startDate, b.endDate as endDate "
+            + "from Booking b where b.status in :statuses")
+    List<BookingPeriod> findPeriodsByStatusIn(@Param("statuses") Collection<BookingStatus> statuses);
+
+    /**
+     * Active bookings of one unit overlapping the range, both ends inclusive, read through the GiST index of the
+     * {@code bookings_no_active_overlap} constraint; the status list must stay literal for it to match.
+     */
+    @Query(value = "select b.id as \"id\", b.unit_id as \"unitId\", b.start_date as \"startDate\", b.end_date as \"endDate\" "
+            + "from bookings b where b.unit_id = :unitId "
+            + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]')", nativeQuery = true)
+    List<BookingPeriod> findPeriodsOverlapping(@Param("unitId") Long unitId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
+    /**
+     * Active bookings of any of the units overlapping the range, both ends inclusive; like
+     * {@link #findPeriodsOverlapping} it goes through the exclusion constraint's GiST index.
+     */
+    @Query(value = "select b.id as \"id\", b.unit_id as \"unitId\", b.start_date as \"startDate\", b.end_date as \"endDate\" "
+            + "from bookings b where b.unit_id in (:unitIds) "
+            + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]')", nativeQuery = true)
+    List<BookingPeriod> findPeriodsOverlappingUnits(@Param("unitIds") Collection<Long> unitIds,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+
+    /**
+     * Every booking still waiting for payment, read from the partial {@code idx_bookings_pending_created_at} index.
+     */
+    @Query("select b.id as id, b.createdAt as createdAt from Booking b "
+            + "where b.status = com.spribe.booking.enums.BookingStatus.PENDING")
+    List<PendingBooking> findPending();
+
+    /**
+     * Streams matching bookings from a server-side cursor; must be consumed inside a transaction.
+     */
+    @Query("select new com.spribe.booking.dto.BookingResponse(b.id, b.unit.id, b.user.id, b.startDate, b.endDate, b.status, b.createdAt) "
+            + "from Booking b "
+            + "where (:unitId is null or b.unit.id = :unitId) "
+            + "and (:userId is null or b.user.id = :userId) "
+            + "and (:status is null or b.status = :status) "
+            + "and (:startDate is null or b.endDate >= :startDate) "
+            + "and (:endDate is null or b.startDate <= :endDate) "
+            + "order by b.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BookingResponse> streamForExport(@Param("unitId") Long unitId,
+                                            @Param("userId") Long userId,
+                                            @Param("status") BookingStatus status,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
 }
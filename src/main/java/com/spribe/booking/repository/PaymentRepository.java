@@ -2,6 +2,19 @@ package com.spribe.booking.repository;
 
 import com.spribe.booking.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * The payment of a booking together with the booking, in one query through {@code idx_payments_booking};
+     * empty when the booking does not exist or belongs to another user. Ownership is checked on the booking's
+     * {@code user_id} column, so neither the user nor the unit is loaded.
+     */
+    @Query("select p from Payment p join fetch p.booking b where b.id = :bookingId and b.user.id = :userId")
+    Optional<Payment> findWithBookingByBookingIdAndUserId(@Param("bookingId") Long bookingId,
+                                                          @Param("userId") Long userId);
 }
@@ -1,8 +1,80 @@
 package com.spribe.booking.repository;
 
+import com.spribe.booking.dto.UnitResponse;
 import com.spribe.booking.entity.Unit;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.repository.projection.UnitOverlapCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface UnitRepository extends JpaRepository<Unit, Long> {
 
+    @Query("select u.id from Unit u")
+    List<Long> findAllIds();
+
+    /**
+     * Loads the units together with their owners in one query; the owner is otherwise fetched eagerly with a
+     * select per unit.
+     */
+    @Query("select u from Unit u join fetch u.owner where u.id in :unitIds")
+    List<Unit> findAllWithOwnerByIdIn(@Param("unitIds") Collection<Long> unitIds);
+
+    /**
+     * Streams every unit as a response row from a server-side cursor; must be consumed inside a transaction.
+     */
+    @Query("select new com.spribe.booking.dto.UnitResponse(u.id, u.title, u.description, u.costPerDay, u.type, u.numberOfRooms, u.floor) "
+            + "from Unit u order by u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UnitResponse> streamCatalog();
+
+    /**
+     * One row per existing unit in {@code unitIds} with the number of its active bookings that overlap the range,
+     * both ends inclusive; ids that do not exist are absent from the result. The overlap runs on the GiST index of
+     * the {@code bookings_no_active_overlap} constraint; the status list must stay literal for it to match.
+     */
+    @Query(value = "select u.id as \"unitId\", count(b.id) as \"overlapping\" "
+            + "from units u left join bookings b on b.unit_id = u.id "
+            + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]') "
+            + "where u.id in (:unitIds) "
+            + "group by u.id", nativeQuery = true)
+    List<UnitOverlapCount> countOverlappingBookings(@Param("unitIds") Collection<Long> unitIds,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+
+    /**
+     * Active bookings of one unit overlapping the range, sorted by start date, read through the GiST index of the
+     * {@code bookings_no_active_overlap} constraint. A unit without such bookings yields a single row with a
+     * {@code null} booking; a unit that does not exist yields no rows.
+     */
+    @Query(value = "select b.id as \"id\", u.id as \"unitId\", b.start_date as \"startDate\", b.end_date as \"endDate\" "
+            + "from units u left join bookings b on b.unit_id = u.id "
+            + "and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]') "
+            + "where u.id = :unitId "
+            + "order by b.start_date", nativeQuery = true)
+    List<BookingPeriod> findBookedPeriods(@Param("unitId") Long unitId,
+                                          @Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
+
+    /**
+     * Number of units with no active booking overlapping the range, both ends inclusive, in one statement; the
+     * overlap test runs on the GiST index of the {@code bookings_no_active_overlap} constraint.
+     */
+    @Query(value = "select count(*) from units u where not exists (select 1 from bookings b "
+            + "where b.unit_id = u.id and b.status in ('PENDING', 'CONFIRMED', 'PAID') "
+            + "and b.period && daterange(:startDate, :endDate, '[]'))", nativeQuery = true)
+    long countAvailable(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
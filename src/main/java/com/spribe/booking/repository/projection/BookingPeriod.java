@@ -0,0 +1,17 @@
+package com.spribe.booking.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight view of the date range a booking holds on a unit.
+ */
+public interface BookingPeriod {
+
+    Long getId();
+
+    Long getUnitId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+}
@@ -0,0 +1,13 @@
+package com.spribe.booking.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking waiting for payment and when it was made.
+ */
+public interface PendingBooking {
+
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,11 @@
+package com.spribe.booking.repository.projection;
+
+/**
+ * Number of active bookings overlapping a requested range on one unit.
+ */
+public interface UnitOverlapCount {
+
+    Long getUnitId();
+
+    Long getOverlapping();
+}
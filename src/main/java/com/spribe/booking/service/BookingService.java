@@ -1,15 +1,27 @@
 package com.spribe.booking.service;
 
+import com.spribe.booking.dto.BookingExportRequest;
+import com.spribe.booking.dto.BookingResponse;
 import com.spribe.booking.entity.Booking;
 import com.spribe.booking.dto.BookingCreateRequest;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface BookingService {
 
     Booking bookUnit(BookingCreateRequest request);
 
+    /**
+     * Books every request in one transaction: either all bookings are created or none is.
+     */
+    List<Booking> bookUnits(List<BookingCreateRequest> requests);
+
     void cancelBooking(Long bookingId, Long userId);
 
     void payForBooking(Long bookingId, Long userId);
 
     void autoExpireUnpaidBookings();
+
+    void exportBookings(BookingExportRequest filter, Consumer<BookingResponse> sink);
 }
@@ -1,13 +1,35 @@
 package com.spribe.booking.service;
 
+import com.spribe.booking.dto.AvailabilityCacheStats;
+
 import java.time.LocalDate;
 
 public interface UnitAvailabilityCacheService {
 
+    /**
+     * The outcome of a cache lookup: the cached count, or on a miss the version of the range seen before the
+     * caller computes the count itself. Storing a count against that version is a no-op once the range has been
+     * invalidated since, so a count computed from data older than a booking is never cached after its
+     * invalidation.
+     */
+    record Lookup(LocalDate startDate, LocalDate endDate, Long count, long version, long localGeneration) {
+
+        public boolean isHit() {
+            return count != null;
+        }
+    }
 
-    Long getCachedAvailableCount(LocalDate startDate, LocalDate endDate);
+    Lookup lookupAvailableCount(LocalDate startDate, LocalDate endDate);
 
-    void putAvailableCount(LocalDate startDate, LocalDate endDate, long count);
+    /**
+     * Caches a count computed after the given miss, unless the range was invalidated since the lookup.
+     */
+    void putAvailableCount(Lookup miss, long count);
 
+    /**
+     * Drops every cached count whose date range overlaps the given one, once the current transaction commits.
+     */
     void invalidate(LocalDate startDate, LocalDate endDate);
+
+    AvailabilityCacheStats getStats();
 }
@@ -0,0 +1,22 @@
+package com.spribe.booking.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+
+public interface UnitCalendarCacheService {
+
+    /**
+     * Cached months of the unit's calendar, one flag per day of the month, {@code true} when the day is booked.
+     * Months that are not cached are absent from the result.
+     */
+    Map<YearMonth, boolean[]> getCachedMonths(Long unitId, Collection<YearMonth> months);
+
+    void putMonth(Long unitId, YearMonth month, boolean[] bookedDays);
+
+    /**
+     * Drops the unit's cached months touched by the range once the surrounding transaction commits.
+     */
+    void evict(Long unitId, LocalDate startDate, LocalDate endDate);
+}
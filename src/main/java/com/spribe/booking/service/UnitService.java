@@ -1,12 +1,19 @@
 package com.spribe.booking.service;
 
+import com.spribe.booking.dto.UnitAvailabilityRequest;
+import com.spribe.booking.dto.UnitCalendarResponse;
 import com.spribe.booking.dto.UnitFilterRequest;
 import com.spribe.booking.dto.UnitResponse;
 import com.spribe.booking.dto.UnitCreateRequest;
 import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitImportResponse;
 import com.spribe.booking.entity.Unit;
+import com.spribe.booking.enums.UnitImportFormat;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UnitService {
 
@@ -15,4 +22,19 @@ public interface UnitService {
     PaginatedResponse<UnitResponse> searchUnits(UnitFilterRequest filter);
 
     long getAvailableUnitCount(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Availability of each requested unit over the range, in request order. Ids of units that do not exist
+     * are left out of the result.
+     */
+    Map<Long, Boolean> checkAvailability(UnitAvailabilityRequest request);
+
+    UnitCalendarResponse getCalendar(Long unitId, LocalDate from, LocalDate to);
+
+    void exportUnits(UnitFilterRequest filter, Consumer<UnitResponse> sink);
+
+    /**
+     * Creates a unit for every valid row of a streamed upload; invalid rows are skipped and reported.
+     */
+    UnitImportResponse importUnits(Long ownerId, UnitImportFormat format, InputStream in);
 }
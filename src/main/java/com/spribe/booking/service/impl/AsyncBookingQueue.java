@@ -0,0 +1,296 @@
+package com.spribe.booking.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingRequestStatus;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.enums.BookingRequestState;
+import com.spribe.booking.service.BookingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts bookings submitted with {@code async=true}: the request is queued and answered with a request id right
+ * away, and a pool of workers takes up to {@code booking.async.batch-size} queued requests at a time and books
+ * them in one transaction through {@link BookingService#bookUnits}. When a batch fails as a whole, for example
+ * because two of its requests overlap, each request is retried alone so only the real losers fail.
+ * <p>
+ * Request states are kept locally and in Redis for {@code booking.async.status-ttl}, so any node can answer a
+ * poll. A poll may wait for the outcome: completions are published on a Redis channel and wake waiters on
+ * every node. The queue itself lives in memory; requests still queued when the node stops are failed with a
+ * 503 status so clients resubmit them.
+ */
+@Slf4j
+@Component
+public class AsyncBookingQueue {
+
+    static final String COMPLETION_CHANNEL = "booking_requests:completed";
+    private static final String KEY_PREFIX = "booking_request:";
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+    private static final long MAX_LOCAL_ENTRIES = 100_000;
+
+    private final BookingService bookingService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration statusTtl;
+    private final BlockingQueue<Command> queue;
+    private final ExecutorService workers;
+
+    private final Cache<String, BookingRequestStatus> statuses;
+    private final Cache<String, CompletableFuture<BookingRequestStatus>> waiters = Caffeine.newBuilder()
+            .expireAfterWrite(MAX_WAIT.multipliedBy(2))
+            .build();
+
+    public AsyncBookingQueue(BookingService bookingService, StringRedisTemplate stringRedisTemplate,
+                             RedisMessageListenerContainer listenerContainer, ObjectMapper objectMapper,
+                             @Value("${booking.async.workers:4}") int workers,
+                             @Value("${booking.async.batch-size:50}") int batchSize,
+                             @Value("${booking.async.max-queued:10000}") int maxQueued,
+                             @Value("${booking.async.status-ttl:1h}") Duration statusTtl,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookingService = bookingService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.statusTtl = statusTtl;
+        this.queue = new LinkedBlockingQueue<>(maxQueued);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(MAX_LOCAL_ENTRIES)
+                .expireAfterWrite(statusTtl)
+                .build();
+        Thread.Builder threads = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        this.workers = Executors.newFixedThreadPool(workers, threads.name("async-booking-", 1).factory());
+        for (int i = 0; i < workers; i++) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    private record Command(String id, BookingCreateRequest request, LocalDateTime submittedAt) {
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onCompletedMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(COMPLETION_CHANNEL));
+    }
+
+    /**
+     * Queues the booking and returns its {@link BookingRequestState#QUEUED} status.
+     *
+     * @throws IllegalStateException when the queue is full
+     */
+    public BookingRequestStatus submit(BookingCreateRequest request) {
+        if (request == null || request.getUnitId() == null || request.getUserId() == null) {
+            throw new IllegalArgumentException("Unit and user are required.");
+        }
+        Command command = new Command(UUID.randomUUID().toString(), request, LocalDateTime.now());
+        BookingRequestStatus status = new BookingRequestStatus(command.id(), BookingRequestState.QUEUED,
+                null, null, null, command.submittedAt(), null);
+        // stored before queueing, so a fast worker's outcome is never overwritten by QUEUED
+        store(status);
+        if (!queue.offer(command)) {
+            forget(command.id());
+            throw new IllegalStateException("Too many pending booking requests, please try again.");
+        }
+        log.info("Booking request queued: id={}, unitId={}", command.id(), request.getUnitId());
+        return status;
+    }
+
+    /**
+     * Returns the request's status, waiting up to {@code wait} (at most 30 seconds) for it to complete.
+     *
+     * @throws EntityNotFoundException when the id is unknown or its status has expired
+     */
+    public CompletableFuture<BookingRequestStatus> await(String id, Duration wait) {
+        BookingRequestStatus current = find(id);
+        if (current == null) {
+            throw new EntityNotFoundException("Booking request not found");
+        }
+        if (current.isDone() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<BookingRequestStatus> done = waiters.asMap().computeIfAbsent(id, k -> new CompletableFuture<>());
+        // the request may have completed before the waiter was registered
+        BookingRequestStatus latest = find(id);
+        if (latest != null && latest.isDone()) {
+            complete(latest);
+        }
+        long waitMillis = Math.min(wait.toMillis(), MAX_WAIT.toMillis());
+        return done.copy().completeOnTimeout(current, waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        List<Command> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Command command : abandoned) {
+            finish(command, null, 503, "Service is shutting down, please resubmit the booking.");
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Failed {} queued booking requests on shutdown", abandoned.size());
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Command> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Unexpected error processing {} booking requests", batch.size(), e);
+            }
+        }
+    }
+
+    private void process(List<Command> batch) {
+        if (batch.size() == 1) {
+            settleAlone(batch.get(0));
+            return;
+        }
+        List<Booking> booked;
+        try {
+            booked = bookingService.bookUnits(batch.stream().map(Command::request).toList());
+        } catch (RuntimeException e) {
+            log.info("Batch of {} booking requests failed ({}), retrying each alone", batch.size(), e.getMessage());
+            batch.forEach(this::settleAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            finish(batch.get(i), booked.get(i), null, null);
+        }
+    }
+
+    private void settleAlone(Command command) {
+        try {
+            finish(command, bookingService.bookUnit(command.request()), null, null);
+        } catch (RuntimeException e) {
+            int status = errorStatus(e);
+            if (status == 500) {
+                log.error("Booking request {} failed", command.id(), e);
+            }
+            finish(command, null, status, status == 500 ? "An unexpected error occurred." : e.getMessage());
+        }
+    }
+
+    /**
+     * The status the synchronous endpoint would answer with, as mapped by the global exception handler.
+     */
+    private static int errorStatus(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return 400;
+        }
+        if (e instanceof SecurityException) {
+            return 403;
+        }
+        if (e instanceof EntityNotFoundException) {
+            return 404;
+        }
+        if (e instanceof IllegalStateException) {
+            return 409;
+        }
+        return 500;
+    }
+
+    private void finish(Command command, Booking booking, Integer errorStatus, String error) {
+        BookingRequestStatus status = new BookingRequestStatus(command.id(),
+                booking != null ? BookingRequestState.SUCCEEDED : BookingRequestState.FAILED,
+                booking != null ? booking.getId() : null, errorStatus, error,
+                command.submittedAt(), LocalDateTime.now());
+        store(status);
+        complete(status);
+        try {
+            stringRedisTemplate.convertAndSend(COMPLETION_CHANNEL, command.id());
+        } catch (Exception e) {
+            log.error("Error publishing completion of booking request {}", command.id(), e);
+        }
+    }
+
+    private void onCompletedMessage(String id) {
+        if (waiters.getIfPresent(id) == null) {
+            return;
+        }
+        BookingRequestStatus status = find(id);
+        if (status != null && status.isDone()) {
+            complete(status);
+        }
+    }
+
+    private void complete(BookingRequestStatus status) {
+        CompletableFuture<BookingRequestStatus> done = waiters.asMap().remove(status.getId());
+        if (done != null) {
+            done.complete(status);
+        }
+    }
+
+    private void store(BookingRequestStatus status) {
+        statuses.put(status.getId(), status);
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + status.getId(),
+                    objectMapper.writeValueAsString(status), statusTtl);
+        } catch (Exception e) {
+            log.error("Error storing booking request {} in Redis, only this node can report it", status.getId(), e);
+        }
+    }
+
+    /**
+     * Drops a status that was stored for a request the queue then turned away, so no node reports it as queued.
+     */
+    private void forget(String id) {
+        statuses.invalidate(id);
+        try {
+            stringRedisTemplate.delete(KEY_PREFIX + id);
+        } catch (Exception e) {
+            log.error("Error removing rejected booking request {} from Redis", id, e);
+        }
+    }
+
+    private BookingRequestStatus find(String id) {
+        BookingRequestStatus local = statuses.getIfPresent(id);
+        if (local != null && local.isDone()) {
+            return local;
+        }
+        try {
+            String value = stringRedisTemplate.opsForValue().get(KEY_PREFIX + id);
+            if (value != null) {
+                return objectMapper.readValue(value, BookingRequestStatus.class);
+            }
+        } catch (Exception e) {
+            log.error("Error reading booking request {} from Redis", id, e);
+        }
+        return local;
+    }
+}
@@ -0,0 +1,353 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.enums.BookingStatus;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process index of the date ranges held by active bookings.
+ * <p>
+ * Two views are maintained together: a compact interval list per unit, answering "is unit X free between
+ * A and B", and one compressed bitmap of occupied units per calendar day, answering "how many units are free
+ * between A and B" as the complement of an OR over the days in the range. Units are mapped to dense ordinals
+ * so the bitmaps stay small.
+ * <p>
+ * The index is built from the database once the application is ready and kept current by the booking
+ * service on commit. It only sees writes made by this node, so the booking write path keeps the database
+ * as the authority and uses the index for read-side answers only. Its answers are only used through
+ * {@link #isAuthoritative}, which holds when this node is the only one writing
+ * ({@code booking.availability-index.single-node}); without that setting nothing reads the index, so it is
+ * neither built nor maintained.
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+    private final UnitRepository unitRepository;
+    private final BookingRepository bookingRepository;
+    private final boolean singleNode;
+
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile State state = new State(false);
+    private volatile boolean ready;
+
+    public AvailabilityIndex(UnitRepository unitRepository, BookingRepository bookingRepository,
+                             @Value("${booking.availability-index.single-node:false}") boolean singleNode) {
+        this.unitRepository = unitRepository;
+        this.bookingRepository = bookingRepository;
+        this.singleNode = singleNode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!singleNode) {
+            log.info("Availability index disabled: other nodes may write, so availability is read from the database");
+            return;
+        }
+        log.info("Rebuilding availability index");
+        rebuildLock.writeLock().lock();
+        try {
+            State fresh = new State(true);
+            for (Long unitId : unitRepository.findAllIds()) {
+                fresh.register(unitId);
+            }
+            List<BookingPeriod> periods = bookingRepository.findPeriodsByStatusIn(BookingStatus.ACTIVE_STATUSES);
+            for (BookingPeriod period : periods) {
+                fresh.add(period.getId(), period.getUnitId(), period.getStartDate(), period.getEndDate());
+            }
+            fresh.occupiedByDay.values().forEach(RoaringBitmap::runOptimize);
+            fresh.building = false;
+            state = fresh;
+            ready = true;
+            log.info("Availability index ready: units={}, activeBookings={}, days={}",
+                    fresh.ordinals.size(), periods.size(), fresh.occupiedByDay.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether the index is ready and sees every write, so its answers may stand in for the database. False
+     * whenever other nodes may book, cancel, expire or import units, since those writes never reach this index.
+     */
+    public boolean isAuthoritative() {
+        return ready && singleNode;
+    }
+
+    public void registerUnit(Long unitId) {
+        if (singleNode) {
+            afterCommit(() -> state.register(unitId));
+        }
+    }
+
+    public void addBooking(Long bookingId, Long unitId, LocalDate startDate, LocalDate endDate) {
+        if (singleNode) {
+            afterCommit(() -> state.add(bookingId, unitId, startDate, endDate));
+        }
+    }
+
+    public void removeBooking(Long bookingId, Long unitId) {
+        if (singleNode) {
+            afterCommit(() -> state.remove(bookingId, unitId));
+        }
+    }
+
+    public boolean isAvailable(Long unitId, LocalDate startDate, LocalDate endDate) {
+        UnitOccupancy unit = state.occupancy.get(unitId);
+        return unit == null || !unit.overlaps(toDay(startDate), toDay(endDate));
+    }
+
+    /**
+     * Counts units with no active booking touching any day of the range: the unit total minus the
+     * cardinality of the union of the per-day occupancy bitmaps. Cost grows with the number of days,
+     * not with the size of the catalog.
+     */
+    public long countAvailable(LocalDate startDate, LocalDate endDate) {
+        State current = state;
+        long total = current.ordinals.size();
+        List<RoaringBitmap> occupied = new ArrayList<>();
+        for (int day = toDay(startDate); day <= toDay(endDate); day++) {
+            RoaringBitmap bitmap = current.occupiedByDay.get(day);
+            if (bitmap != null) {
+                occupied.add(bitmap);
+            }
+        }
+        if (occupied.isEmpty()) {
+            return total;
+        }
+        return total - RoaringBitmap.or(occupied.iterator()).getLongCardinality();
+    }
+
+    /**
+     * Applies the change once the surrounding transaction commits, so a rolled back booking never shows up
+     * in the index. Changes wait for a running rebuild and are idempotent, so they are safe to replay over it.
+     */
+    private void afterCommit(Runnable change) {
+        Runnable guarded = () -> {
+            rebuildLock.readLock().lock();
+            try {
+                change.run();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private static int toDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * One generation of the index. A rebuild fills a fresh state that no reader can see yet, so its day
+     * bitmaps are mutated in place; once published, day bitmaps are copied on write and readers can OR
+     * them without locking.
+     */
+    private static final class State {
+
+        private final Map<Long, UnitOccupancy> occupancy = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> ordinals = new ConcurrentHashMap<>();
+        private final Map<Integer, RoaringBitmap> occupiedByDay = new ConcurrentHashMap<>();
+        private final AtomicInteger nextOrdinal = new AtomicInteger();
+        private volatile boolean building;
+
+        private State(boolean building) {
+            this.building = building;
+        }
+
+        int register(Long unitId) {
+            occupancy.putIfAbsent(unitId, UnitOccupancy.EMPTY);
+            return ordinals.computeIfAbsent(unitId, id -> nextOrdinal.getAndIncrement());
+        }
+
+        void add(Long bookingId, Long unitId, LocalDate startDate, LocalDate endDate) {
+            int ordinal = register(unitId);
+            occupancy.compute(unitId, (id, current) -> {
+                UnitOccupancy previous = current != null ? current : UnitOccupancy.EMPTY;
+                UnitOccupancy updated = previous.with(bookingId, startDate, endDate);
+                if (updated != previous) {
+                    for (int day = toDay(startDate); day <= toDay(endDate); day++) {
+                        updateDay(day, bitmap -> bitmap.add(ordinal));
+                    }
+                }
+                return updated;
+            });
+        }
+
+        void remove(Long bookingId, Long unitId) {
+            Integer ordinal = ordinals.get(unitId);
+            if (ordinal == null) {
+                return;
+            }
+            occupancy.computeIfPresent(unitId, (id, current) -> {
+                int[] range = current.rangeOf(bookingId);
+                UnitOccupancy updated = current.without(bookingId);
+                if (range != null) {
+                    for (int day = range[0]; day <= range[1]; day++) {
+                        // another booking of the same unit may still hold this day
+                        if (!updated.overlaps(day, day)) {
+                            updateDay(day, bitmap -> bitmap.remove(ordinal));
+                        }
+                    }
+                }
+                return updated;
+            });
+        }
+
+        private void updateDay(int day, Consumer<RoaringBitmap> change) {
+            occupiedByDay.compute(day, (key, current) -> {
+                RoaringBitmap target;
+                if (current == null) {
+                    target = new RoaringBitmap();
+                } else {
+                    target = building ? current : current.clone();
+                }
+                change.accept(target);
+                if (!building) {
+                    target.runOptimize();
+                }
+                return target.isEmpty() ? null : target;
+            });
+        }
+    }
+
+    /**
+     * Immutable, start-sorted interval list of one unit's active bookings, stored as parallel primitive arrays.
+     * {@code maxEnds[i]} is the latest end among intervals {@code 0..i}, which turns an overlap check into a
+     * single binary search.
+     */
+    static final class UnitOccupancy {
+
+        static final UnitOccupancy EMPTY = new UnitOccupancy(new long[0], new int[0], new int[0], new int[0]);
+
+        private final long[] bookingIds;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+
+        private UnitOccupancy(long[] bookingIds, int[] starts, int[] ends, int[] maxEnds) {
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+        }
+
+        boolean overlaps(int start, int end) {
+            int last = lastStartingOnOrBefore(end);
+            return last >= 0 && maxEnds[last] >= start;
+        }
+
+        UnitOccupancy with(long bookingId, LocalDate startDate, LocalDate endDate) {
+            if (indexOf(bookingId) >= 0) {
+                return this;
+            }
+            int start = toDay(startDate);
+            int end = toDay(endDate);
+            int at = lastStartingOnOrBefore(start) + 1;
+            int n = starts.length;
+
+            long[] newIds = new long[n + 1];
+            int[] newStarts = new int[n + 1];
+            int[] newEnds = new int[n + 1];
+            System.arraycopy(bookingIds, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            newIds[at] = bookingId;
+            newStarts[at] = start;
+            newEnds[at] = end;
+            System.arraycopy(bookingIds, at, newIds, at + 1, n - at);
+            System.arraycopy(starts, at, newStarts, at + 1, n - at);
+            System.arraycopy(ends, at, newEnds, at + 1, n - at);
+            return new UnitOccupancy(newIds, newStarts, newEnds, prefixMax(newEnds));
+        }
+
+        UnitOccupancy without(long bookingId) {
+            int at = indexOf(bookingId);
+            if (at < 0) {
+                return this;
+            }
+            int n = starts.length;
+            long[] newIds = new long[n - 1];
+            int[] newStarts = new int[n - 1];
+            int[] newEnds = new int[n - 1];
+            System.arraycopy(bookingIds, 0, newIds, 0, at);
+            System.arraycopy(starts, 0, newStarts, 0, at);
+            System.arraycopy(ends, 0, newEnds, 0, at);
+            System.arraycopy(bookingIds, at + 1, newIds, at, n - at - 1);
+            System.arraycopy(starts, at + 1, newStarts, at, n - at - 1);
+            System.arraycopy(ends, at + 1, newEnds, at, n - at - 1);
+            return new UnitOccupancy(newIds, newStarts, newEnds, prefixMax(newEnds));
+        }
+
+        int[] rangeOf(long bookingId) {
+            int at = indexOf(bookingId);
+            return at < 0 ? null : new int[]{starts[at], ends[at]};
+        }
+
+        private int lastStartingOnOrBefore(int day) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        private int indexOf(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int[] prefixMax(int[] ends) {
+            int[] maxEnds = Arrays.copyOf(ends, ends.length);
+            for (int i = 1; i < maxEnds.length; i++) {
+                maxEnds[i] = Math.max(maxEnds[i - 1], maxEnds[i]);
+            }
+            return maxEnds;
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package com.spribe.booking.service.impl;
 
-import com.spribe.booking.service.BookingService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class BookingExpiryScheduler {
 
-    private final BookingService bookingService;
+    static final String JOB_NAME = "expire-unpaid-bookings";
+
+    private final UnpaidBookingExpirer expirer;
+    private final ClusterJob expiryJob;
+
+    public BookingExpiryScheduler(UnpaidBookingExpirer expirer, JobLeaseCoordinator jobLeaseCoordinator,
+                                  @Value("${booking.expiry.sweep-lease:90s}") Duration sweepLease) {
+        this.expirer = expirer;
+        this.expiryJob = jobLeaseCoordinator.register(JOB_NAME, sweepLease);
+    }
 
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Safety net for {@link BookingExpiryWheel}, which expires bookings at their deadline but only on the node
+     * that took them: the bookings of a node that stopped are left to this sweep, so it keeps running every
+     * minute. Only the node holding the job's lease sweeps, and each chunk it expires is fenced by that lease.
+     */
+    @Scheduled(fixedRateString = "${booking.expiry.sweep-interval:60s}")
     public void expireUnpaidBookings() {
-        log.info("Running scheduled task: expire unpaid bookings");
-        bookingService.autoExpireUnpaidBookings();
+        boolean ran = expiryJob.runIfLeader(lease -> {
+            log.info("Running scheduled task: expire unpaid bookings, fencingToken={}", lease.fencingToken());
+            expirer.expireUnpaid(expiryJob, lease);
+        });
+        if (!ran) {
+            log.debug("Skipping scheduled task: expire unpaid bookings, another node holds the lease");
+        }
     }
 }
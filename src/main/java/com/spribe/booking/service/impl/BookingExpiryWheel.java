@@ -0,0 +1,153 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.projection.PendingBooking;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires each PENDING booking when its payment window ends, instead of waiting for the next sweep. New
+ * bookings are put on a {@link HierarchicalTimingWheel} at {@code createdAt + booking.expiry.payment-window}
+ * once their transaction commits, payment and cancellation take them off, and a ticker thread expires whatever
+ * became due in the last tick as one batch through {@link UnpaidBookingExpirer#expire}.
+ * <p>
+ * The wheel lives in memory: on startup it is refilled from the PENDING rows, and the periodic sweep in
+ * {@link BookingExpiryScheduler} still catches anything it missed, such as bookings paid or created on another
+ * node. Expiring a booking that was paid meanwhile is a no-op, since the expiry only touches PENDING rows.
+ */
+@Slf4j
+@Component
+public class BookingExpiryWheel {
+
+    private final UnpaidBookingExpirer expirer;
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Duration paymentWindow;
+    private final long tickMillis;
+    private final HierarchicalTimingWheel wheel;
+    private final ScheduledExecutorService ticker;
+
+    public BookingExpiryWheel(UnpaidBookingExpirer expirer, BookingRepository bookingRepository,
+                              @Value("${booking.expiry.wheel.enabled:true}") boolean enabled,
+                              @Value("${booking.expiry.payment-window:15m}") Duration paymentWindow,
+                              @Value("${booking.expiry.wheel.tick:1s}") Duration tick) {
+        this.expirer = expirer;
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.paymentWindow = paymentWindow;
+        this.tickMillis = tick.toMillis();
+        this.wheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Refills the wheel from the PENDING rows and starts ticking. Bookings scheduled while the rows load are
+     * kept; a row cancelled meanwhile is re-added and fires as a no-op.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void start() {
+        if (!enabled) {
+            log.info("Booking expiry wheel disabled, unpaid bookings are expired by the periodic sweep only");
+            return;
+        }
+        List<PendingBooking> pending = bookingRepository.findPending();
+        synchronized (wheel) {
+            for (PendingBooking booking : pending) {
+                wheel.schedule(booking.getId(), deadline(booking.getCreatedAt()));
+            }
+        }
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Booking expiry wheel started: pendingBookings={}, tick={} ms", pending.size(), tickMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Schedules the booking's expiry once the current transaction commits.
+     */
+    public void schedule(Long bookingId, LocalDateTime createdAt) {
+        if (enabled) {
+            long deadline = deadline(createdAt);
+            afterCommit(() -> {
+                synchronized (wheel) {
+                    wheel.schedule(bookingId, deadline);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the booking's expiry once the current transaction commits.
+     */
+    public void cancel(Long bookingId) {
+        if (enabled) {
+            afterCommit(() -> {
+                synchronized (wheel) {
+                    wheel.cancel(bookingId);
+                }
+            });
+        }
+    }
+
+    int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    void tick() {
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            expirer.expire(due);
+        } catch (RuntimeException e) {
+            // left PENDING; the periodic sweep expires them
+            log.error("Error expiring {} due bookings", due.size(), e);
+        }
+    }
+
+    private long deadline(LocalDateTime createdAt) {
+        return createdAt.plus(paymentWindow).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
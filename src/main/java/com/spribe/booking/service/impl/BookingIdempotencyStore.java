@@ -0,0 +1,250 @@
+package com.spribe.booking.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Dedupe store behind the {@code Idempotency-Key} header of booking creation, scoped per user.
+ * <p>
+ * The first request with a key claims it in Redis ({@code SET NX}) and runs. The claim is short-lived but
+ * renewed while the request runs, however long it waits in a queue or on a lock, so it cannot lapse under a
+ * running request and let a retry on another node book again; it only lapses when its node dies. The booking is then kept as JSON in
+ * a local Caffeine cache and in Redis for {@code booking.idempotency.ttl}, so replays on any node are answered
+ * without touching Postgres. Duplicates arriving on the same node while the first request runs wait for its
+ * result; a duplicate on another node gets a conflict and can retry. Only successful responses are stored: a
+ * failed request releases its key so a retry runs again. Reusing a key with a different request is rejected.
+ * When Redis is unavailable the store degrades to this node only.
+ */
+@Slf4j
+@Component
+public class BookingIdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String KEY_PREFIX = "idempotency:booking:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration IN_FLIGHT_TTL = Duration.ofMinutes(1);
+    private static final long MAX_LOCAL_ENTRIES = 100_000;
+    /**
+     * Extends the claim only while it is still the claim written by this request, so a renewal racing the final
+     * write never shortens the stored response.
+     */
+    private static final RedisScript<Long> RENEW_CLAIM = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inFlightTtl;
+    private final ScheduledExecutorService renewer;
+    private final Cache<String, StoredResponse> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingIdempotencyStore(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                                   @Value("${booking.idempotency.ttl:24h}") Duration ttl) {
+        this(stringRedisTemplate, objectMapper, ttl, IN_FLIGHT_TTL);
+    }
+
+    BookingIdempotencyStore(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper, Duration ttl,
+                            Duration inFlightTtl) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inFlightTtl = inFlightTtl;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-claim-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(MAX_LOCAL_ENTRIES)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * State of a key in Redis: claimed by a running request, or done with the booking as JSON.
+     */
+    record StoredResponse(String fingerprint, boolean done, String body) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<BookingResponse> result) {
+    }
+
+    /**
+     * Runs {@code action} once per user and key and returns its booking to every request carrying that key.
+     *
+     * @throws IllegalArgumentException when the key is blank, too long or was used for a different request
+     */
+    public CompletableFuture<BookingResponse> execute(String idempotencyKey, BookingCreateRequest request,
+                                                      Supplier<CompletableFuture<BookingResponse>> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters long.");
+        }
+        String key = request.getUserId() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse local = completed.getIfPresent(key);
+        if (local != null) {
+            requireSameRequest(local.fingerprint(), fingerprint);
+            log.info("Replaying booking response from local store: key={}", key);
+            return CompletableFuture.completedFuture(read(local));
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            requireSameRequest(running.fingerprint(), fingerprint);
+            log.info("Waiting for in-flight booking request: key={}", key);
+            return running.result();
+        }
+
+        try {
+            String claim = write(new StoredResponse(fingerprint, false, null));
+            StoredResponse stored = claim(key, claim);
+            if (stored == null) {
+                ScheduledFuture<?> renewal = keepClaimed(key, claim);
+                run(action).whenComplete((booking, error) -> {
+                    renewal.cancel(false);
+                    finish(key, mine, booking, error);
+                });
+                return mine.result();
+            }
+            requireSameRequest(stored.fingerprint(), fingerprint);
+            if (!stored.done()) {
+                throw new IllegalStateException("A request with this " + HEADER + " is still being processed.");
+            }
+            log.info("Replaying booking response from Redis: key={}", key);
+            completed.put(key, stored);
+            mine.result().complete(read(stored));
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+        }
+        inFlight.remove(key, mine);
+        return mine.result();
+    }
+
+    /**
+     * Claims the key in Redis. Returns {@code null} when this request owns the key, including when Redis cannot
+     * be reached, otherwise what another request stored under it.
+     */
+    private StoredResponse claim(String key, String claim) {
+        try {
+            Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, claim, inFlightTtl);
+            if (Boolean.TRUE.equals(claimed)) {
+                return null;
+            }
+            String value = stringRedisTemplate.opsForValue().get(KEY_PREFIX + key);
+            // the claim expired between the two calls
+            return value != null ? objectMapper.readValue(value, StoredResponse.class) : null;
+        } catch (Exception e) {
+            log.error("Error claiming idempotency key {}, deduplicating on this node only", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Renews the claim every third of its lifetime until the returned task is cancelled.
+     */
+    private ScheduledFuture<?> keepClaimed(String key, String claim) {
+        long period = Math.max(1, inFlightTtl.toMillis() / 3);
+        return renewer.scheduleAtFixedRate(() -> renewClaim(key, claim), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void renewClaim(String key, String claim) {
+        try {
+            stringRedisTemplate.execute(RENEW_CLAIM, List.of(KEY_PREFIX + key), claim,
+                    String.valueOf(inFlightTtl.toMillis()));
+        } catch (Exception e) {
+            log.error("Error renewing claim on idempotency key {}", key, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    private void finish(String key, InFlight mine, BookingResponse booking, Throwable error) {
+        try {
+            if (error == null) {
+                StoredResponse stored = new StoredResponse(mine.fingerprint(), true, write(booking));
+                completed.put(key, stored);
+                stringRedisTemplate.opsForValue().set(KEY_PREFIX + key, write(stored), ttl);
+            } else {
+                stringRedisTemplate.delete(KEY_PREFIX + key);
+            }
+        } catch (Exception e) {
+            log.error("Error storing idempotent response for key {}", key, e);
+        } finally {
+            // the response is in the local store before the key stops being in flight
+            inFlight.remove(key, mine);
+            if (error == null) {
+                mine.result().complete(booking);
+            } else {
+                mine.result().completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }
+    }
+
+    private static CompletableFuture<BookingResponse> run(Supplier<CompletableFuture<BookingResponse>> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void requireSameRequest(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request.");
+        }
+    }
+
+    private static String fingerprint(BookingCreateRequest request) {
+        return request.getUnitId() + "|" + request.getStart() + "|" + request.getEnd();
+    }
+
+    private BookingResponse read(StoredResponse stored) {
+        try {
+            return objectMapper.readValue(stored.body(), BookingResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored booking response cannot be read.", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Booking response cannot be stored.", e);
+        }
+    }
+}
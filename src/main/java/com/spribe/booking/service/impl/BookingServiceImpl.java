@@ -10,20 +10,39 @@ import com.spribe.booking.repository.BookingRepository;
 import com.spribe.booking.repository.PaymentRepository;
 import com.spribe.booking.repository.UnitRepository;
 import com.spribe.booking.repository.UserRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
 import com.spribe.booking.service.BookingService;
 import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
 import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingExportRequest;
+import com.spribe.booking.dto.BookingResponse;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -31,86 +50,138 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final int MAX_BATCH_BOOKINGS = 500;
+
     private final BookingRepository bookingRepository;
     private final UnitRepository unitRepository;
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final UnitAvailabilityCacheService cacheService;
+    private final AvailabilityIndex availabilityIndex;
+    private final UnitCalendarCacheService calendarCache;
+    private final UnitBookingLock unitBookingLock;
+    private final UnpaidBookingExpirer unpaidBookingExpirer;
+    private final BookingExpiryWheel expiryWheel;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     public Booking bookUnit(BookingCreateRequest request) {
         log.info("Booking unit: userId={}, unitId={}, startDate={}, endDate={}", request.getUserId(), request.getUnitId(), request.getStart(), request.getEnd());
         LocalDate startDate = LocalDate.parse(request.getStart());
         LocalDate endDate = LocalDate.parse(request.getEnd());
+        validateRange(startDate, endDate);
 
-        if (!startDate.isBefore(endDate)) {
-            log.warn("Start date {} is not before end date {}", startDate, endDate);
-            throw new IllegalArgumentException("Start date must be before end date.");
-        }
-
-        Unit unit = unitRepository.findById(request.getUnitId())
-                .orElseThrow(() -> {
-                    log.error("Unit not found: unitId={}", request.getUnitId());
-                    return new EntityNotFoundException("Unit not found");
-                });
-
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> {
-                    log.error("User not found: userId={}", request.getUserId());
-                    return new EntityNotFoundException("User not found");
-                });
-
-        List<Booking> overlapping = bookingRepository.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                request.getUnitId(),
-                List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.PAID),
-                endDate,
-                startDate
-        );
+        Unit unit = findUnit(request.getUnitId());
+        User user = findUser(request.getUserId());
 
-        if (!overlapping.isEmpty()) {
+        unitBookingLock.lockUntilCompletion(unit.getId());
+        if (bookingRepository.existsActiveOverlap(request.getUnitId(), startDate, endDate)) {
             log.warn("Unit {} is not available for the selected dates: {} - {}", request.getUnitId(), startDate, endDate);
             throw new IllegalStateException("Unit is not available for the selected dates.");
         }
 
-        Booking booking = new Booking();
-        booking.setUnit(unit);
-        booking.setUser(user);
-        booking.setStartDate(startDate);
-        booking.setEndDate(endDate);
-        booking.setStatus(BookingStatus.PENDING);
-        booking.setCreatedAt(LocalDateTime.now());
-
-        Booking saved = bookingRepository.save(booking);
-        log.info("Booking created: bookingId={}", saved.getId());
+        Booking saved = insertBookings(() -> createBooking(unit, user, startDate, endDate));
+        cacheService.invalidate(startDate, endDate);
+        log.info("Cache invalidated for dates: {} - {}", startDate, endDate);
+        return saved;
+    }
 
-        Payment payment = new Payment();
-        payment.setBooking(saved);
-        payment.setStatus(PaymentStatus.PENDING);
-        payment.setAmount(calculateCost(unit.getCostPerDay(), startDate, endDate));
-        payment.setCreatedAt(LocalDateTime.now());
+    /**
+     * Validates every request against the database and against the other requests of the batch, then books
+     * them all in this transaction; any failure rolls the whole batch back. The number of statements does not
+     * grow with the batch: units, users, locks and current occupancy are each read with one query, and the
+     * booking and payment rows go out as JDBC batches with ids from pooled sequences.
+     */
+    @Override
+    public List<Booking> bookUnits(List<BookingCreateRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one booking is required.");
+        }
+        if (requests.size() > MAX_BATCH_BOOKINGS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_BOOKINGS + " bookings can be made at once.");
+        }
+        log.info("Booking {} units in one transaction", requests.size());
+        List<LocalDate[]> ranges = new ArrayList<>();
+        Set<Long> unitIds = new TreeSet<>();
+        Set<Long> userIds = new HashSet<>();
+        LocalDate spanStart = null;
+        LocalDate spanEnd = null;
+        for (BookingCreateRequest request : requests) {
+            if (request.getUnitId() == null || request.getUserId() == null) {
+                throw new IllegalArgumentException("Unit and user are required.");
+            }
+            LocalDate startDate = LocalDate.parse(request.getStart());
+            LocalDate endDate = LocalDate.parse(request.getEnd());
+            validateRange(startDate, endDate);
+            ranges.add(new LocalDate[]{startDate, endDate});
+            unitIds.add(request.getUnitId());
+            userIds.add(request.getUserId());
+            spanStart = spanStart == null || startDate.isBefore(spanStart) ? startDate : spanStart;
+            spanEnd = spanEnd == null || endDate.isAfter(spanEnd) ? endDate : spanEnd;
+        }
 
-        paymentRepository.save(payment);
-        log.info("Payment created for bookingId={}", saved.getId());
+        Map<Long, Unit> units = unitRepository.findAllWithOwnerByIdIn(unitIds).stream()
+                .collect(Collectors.toMap(Unit::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (BookingCreateRequest request : requests) {
+            if (!units.containsKey(request.getUnitId())) {
+                log.error("Unit not found: unitId={}", request.getUnitId());
+                throw new EntityNotFoundException("Unit not found");
+            }
+            if (!users.containsKey(request.getUserId())) {
+                log.error("User not found: userId={}", request.getUserId());
+                throw new EntityNotFoundException("User not found");
+            }
+        }
 
-        cacheService.invalidate(startDate, endDate);
-        log.info("Cache invalidated for dates: {} - {}", startDate, endDate);
+        unitBookingLock.lockAllUntilCompletion(unitIds);
+        Map<Long, List<LocalDate[]>> occupied = new HashMap<>();
+        for (BookingPeriod period : bookingRepository.findPeriodsOverlappingUnits(unitIds, spanStart, spanEnd)) {
+            occupied.computeIfAbsent(period.getUnitId(), id -> new ArrayList<>())
+                    .add(new LocalDate[]{period.getStartDate(), period.getEndDate()});
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            Long unitId = requests.get(i).getUnitId();
+            LocalDate[] range = ranges.get(i);
+            List<LocalDate[]> unitPeriods = occupied.computeIfAbsent(unitId, id -> new ArrayList<>());
+            if (unitPeriods.stream().anyMatch(other -> !other[0].isAfter(range[1]) && !other[1].isBefore(range[0]))) {
+                log.warn("Unit {} is not available for the selected dates: {} - {}", unitId, range[0], range[1]);
+                throw new IllegalStateException("Unit " + unitId + " is not available for the selected dates.");
+            }
+            // later requests of the batch must not overlap this one either
+            unitPeriods.add(range);
+        }
 
-        return saved;
+        List<Booking> booked = insertBookings(() -> {
+            List<Booking> created = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                BookingCreateRequest request = requests.get(i);
+                created.add(createBooking(units.get(request.getUnitId()), users.get(request.getUserId()),
+                        ranges.get(i)[0], ranges.get(i)[1]));
+            }
+            return created;
+        });
+        cacheService.invalidate(spanStart, spanEnd);
+        log.info("Booked {} units, cache invalidated for dates: {} - {}", booked.size(), spanStart, spanEnd);
+        return booked;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cancelBooking(Long bookingId, Long userId) {
         log.info("Cancelling booking: bookingId={}, userId={}", bookingId, userId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> {
-                    log.error("Booking not found: bookingId={}", bookingId);
-                    return new EntityNotFoundException("Booking not found");
-                });
+        optimisticRetry.run("cancel of booking " + bookingId, () -> cancel(bookingId, userId));
+    }
 
-        if (!booking.getUser().getId().equals(userId)) {
-            log.warn("User {} tried to cancel booking {} not owned by them", userId, bookingId);
-            throw new SecurityException("You can only cancel your own bookings.");
-        }
+    /**
+     * One attempt at cancelling. The update checks the version read here, so it fails when a payment or the
+     * expiry changed the booking meanwhile, and the retry decides again on the new status.
+     */
+    private void cancel(Long bookingId, Long userId) {
+        Booking booking = bookingRepository.findByIdAndUserId(bookingId, userId)
+                .orElseThrow(() -> notFoundOrForbidden(bookingId, userId, "cancel"));
 
         if (booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.EXPIRED) {
             log.info("Booking already cancelled or expired: bookingId={}", bookingId);
@@ -118,26 +189,34 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        // flushed here so a failed version check surfaces as the conflict the retry looks for
+        bookingRepository.saveAndFlush(booking);
         log.info("Booking cancelled: bookingId={}", bookingId);
+        expiryWheel.cancel(bookingId);
 
+        availabilityIndex.removeBooking(bookingId, booking.getUnit().getId());
+        calendarCache.evict(booking.getUnit().getId(), booking.getStartDate(), booking.getEndDate());
+        // after the index update, as commit callbacks run in registration order
         cacheService.invalidate(booking.getStartDate(), booking.getEndDate());
         log.info("Cache invalidated for dates: {} - {}", booking.getStartDate(), booking.getEndDate());
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void payForBooking(Long bookingId, Long userId) {
         log.info("Processing payment: bookingId={}, userId={}", bookingId, userId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> {
-                    log.error("Booking not found: bookingId={}", bookingId);
-                    return new EntityNotFoundException("Booking not found");
-                });
+        optimisticRetry.run("payment of booking " + bookingId, () -> pay(bookingId, userId));
+    }
 
-        if (!booking.getUser().getId().equals(userId)) {
-            log.warn("User {} tried to pay for booking {} not owned by them", userId, bookingId);
-            throw new SecurityException("You can only pay for your own bookings.");
-        }
+    /**
+     * One attempt at paying: PENDING to PAID for the booking and its payment, both updates conditional on the
+     * versions read here. A booking expired or cancelled meanwhile makes them fail, and the retry then rejects
+     * the payment since the booking is no longer PENDING.
+     */
+    private void pay(Long bookingId, Long userId) {
+        Payment payment = paymentRepository.findWithBookingByBookingIdAndUserId(bookingId, userId)
+                .orElseThrow(() -> notFoundOrForbidden(bookingId, userId, "pay for"));
+        Booking booking = payment.getBooking();
 
         if (booking.getStatus() != BookingStatus.PENDING) {
             log.warn("Booking {} is not in PENDING state for payment", bookingId);
@@ -145,48 +224,132 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(BookingStatus.PAID);
-
-        Payment payment = paymentRepository.findById(bookingId)
-                .orElseThrow(() -> {
-                    log.error("Payment not found for bookingId={}", bookingId);
-                    return new EntityNotFoundException("Payment not found");
-                });
         payment.setStatus(PaymentStatus.PAID);
         payment.setPaymentTime(LocalDateTime.now());
 
         bookingRepository.save(booking);
         paymentRepository.save(payment);
+        paymentRepository.flush();
         log.info("Payment processed and booking marked as PAID: bookingId={}", bookingId);
+        expiryWheel.cancel(bookingId);
+    }
+
+    /**
+     * Tells apart a missing booking from someone else's once the owner-scoped lookup came back empty; only the
+     * failure path pays for the extra query.
+     */
+    private RuntimeException notFoundOrForbidden(Long bookingId, Long userId, String action) {
+        if (!bookingRepository.existsById(bookingId)) {
+            log.error("Booking not found: bookingId={}", bookingId);
+            return new EntityNotFoundException("Booking not found");
+        }
+        log.warn("User {} tried to {} booking {} not owned by them", userId, action, bookingId);
+        return new SecurityException("You can only " + action + " your own bookings.");
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void autoExpireUnpaidBookings() {
         log.info("Auto-expiring unpaid bookings");
-        List<Booking> bookings = bookingRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Booking b : bookings) {
-            if (b.getStatus() == BookingStatus.PENDING &&
-                    b.getCreatedAt().plusMinutes(15).isBefore(now)) {
-
-                b.setStatus(BookingStatus.EXPIRED);
-                bookingRepository.save(b);
-                log.info("Booking expired: bookingId={}", b.getId());
-
-                Optional<Payment> p = paymentRepository.findById(b.getId());
-                p.ifPresent(payment -> {
-                    payment.setStatus(PaymentStatus.FAILED);
-                    payment.setPaymentTime(LocalDateTime.now());
-                    paymentRepository.save(payment);
-                    log.info("Payment marked as FAILED for expired bookingId={}", b.getId());
+        unpaidBookingExpirer.expireUnpaid();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookings(BookingExportRequest filter, Consumer<BookingResponse> sink) {
+        log.info("Exporting bookings: unitId={}, userId={}, status={}, startDate={}, endDate={}",
+                filter.getUnitId(), filter.getUserId(), filter.getStatus(), filter.getStartDate(), filter.getEndDate());
+        long exported = 0;
+        try (Stream<BookingResponse> rows = bookingRepository.streamForExport(
+                filter.getUnitId(), filter.getUserId(), filter.getStatus(), filter.getStartDate(), filter.getEndDate())) {
+            Iterator<BookingResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                exported++;
+            }
+        }
+        log.info("Booking export completed, exported {} rows", exported);
+    }
+
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (!startDate.isBefore(endDate)) {
+            log.warn("Start date {} is not before end date {}", startDate, endDate);
+            throw new IllegalArgumentException("Start date must be before end date.");
+        }
+    }
+
+    private Unit findUnit(Long unitId) {
+        return unitRepository.findById(unitId)
+                .orElseThrow(() -> {
+                    log.error("Unit not found: unitId={}", unitId);
+                    return new EntityNotFoundException("Unit not found");
+                });
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    log.error("User not found: userId={}", userId);
+                    return new EntityNotFoundException("User not found");
                 });
+    }
 
-                cacheService.invalidate(b.getStartDate(), b.getEndDate());
-                log.info("Cache invalidated for expired booking: {} - {}", b.getStartDate(), b.getEndDate());
+    /**
+     * Runs the inserts and flushes them. Booking ids come from a pooled sequence, so the INSERTs are only sent
+     * on flush; flushing here lets an exclusion constraint violation surface as a conflict.
+     */
+    private <T> T insertBookings(Supplier<T> inserts) {
+        try {
+            T result = inserts.get();
+            bookingRepository.flush();
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent booking committed between the overlap check and the insert
+            if (isOverlapViolation(e)) {
+                log.warn("Booking rejected by the overlap constraint, a concurrent booking committed first");
+                throw new IllegalStateException("Unit is not available for the selected dates.");
             }
+            throw e;
         }
     }
 
+    /**
+     * Persists the booking with its pending payment and schedules the index, calendar and expiry updates. The caller has
+     * locked the unit, checked it is free and invalidates the availability cache.
+     */
+    private Booking createBooking(Unit unit, User user, LocalDate startDate, LocalDate endDate) {
+        Booking booking = new Booking();
+        booking.setUnit(unit);
+        booking.setUser(user);
+        booking.setStartDate(startDate);
+        booking.setEndDate(endDate);
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setCreatedAt(LocalDateTime.now());
+
+        Booking saved = bookingRepository.save(booking);
+        log.info("Booking created: bookingId={}", saved.getId());
+
+        Payment payment = new Payment();
+        payment.setBooking(saved);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setAmount(calculateCost(unit.getCostPerDay(), startDate, endDate));
+        payment.setCreatedAt(LocalDateTime.now());
+
+        paymentRepository.save(payment);
+        log.info("Payment created for bookingId={}", saved.getId());
+
+        availabilityIndex.addBooking(saved.getId(), unit.getId(), startDate, endDate);
+        calendarCache.evict(unit.getId(), startDate, endDate);
+        expiryWheel.schedule(saved.getId(), saved.getCreatedAt());
+
+        return saved;
+    }
+
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sql
+                && EXCLUSION_VIOLATION.equals(sql.getSQLState());
+    }
+
     private BigDecimal calculateCost(BigDecimal costPerDay, LocalDate start, LocalDate end) {
         long days = start.until(end).getDays();
         BigDecimal base = costPerDay.multiply(BigDecimal.valueOf(days));
@@ -0,0 +1,197 @@
+package com.spribe.booking.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A job registered with {@link JobLeaseCoordinator}: {@link #runIfLeader} runs it only on the node holding its
+ * lease in {@code job_leases}. Each run renews the lease, so the node that got it keeps it as long as it keeps
+ * running the job; when that node stops or misses runs for longer than the lease, the next node to try takes
+ * over with a higher fencing token.
+ * <p>
+ * The lease should outlast a run, but a run can still outlive it, for example when its node pauses. A job whose
+ * writes must not come from a node that lost the lease calls {@link #fence} first in each transaction that
+ * writes: it fails once another node has taken over, and until the transaction ends no other node can take
+ * the lease.
+ */
+@Slf4j
+public class ClusterJob {
+
+    /**
+     * Takes the lease when it is free or expired, or renews it when this node holds it. The token only grows
+     * when the lease changes hands. Uses the database clock, so nodes need not agree on the time.
+     */
+    private static final String ACQUIRE = """
+            INSERT INTO job_leases AS l (job_name, owner, fencing_token, leased_until, acquired_at)
+            VALUES (?, ?, 1, now() + ? * interval '1 millisecond', now())
+            ON CONFLICT (job_name) DO UPDATE
+            SET fencing_token = CASE WHEN l.owner = EXCLUDED.owner AND l.leased_until > now()
+                                     THEN l.fencing_token ELSE l.fencing_token + 1 END,
+                acquired_at = CASE WHEN l.owner = EXCLUDED.owner AND l.leased_until > now()
+                                   THEN l.acquired_at ELSE now() END,
+                owner = EXCLUDED.owner,
+                leased_until = EXCLUDED.leased_until
+            WHERE l.owner = EXCLUDED.owner OR l.leased_until <= now()
+            RETURNING l.fencing_token
+            """;
+    private static final String HELD = "SELECT count(*) FROM job_leases "
+            + "WHERE job_name = ? AND owner = ? AND fencing_token = ? AND leased_until > now()";
+    private static final String FENCE = "SELECT fencing_token FROM job_leases "
+            + "WHERE job_name = ? AND owner = ? AND fencing_token = ? AND leased_until > now() FOR SHARE";
+    private static final String RELEASE = "UPDATE job_leases SET leased_until = now() "
+            + "WHERE job_name = ? AND owner = ? AND fencing_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String name;
+    private final String owner;
+    private final Duration leaseDuration;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private volatile Long fencingToken;
+
+    ClusterJob(JdbcTemplate jdbcTemplate, String name, String owner, Duration leaseDuration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.name = name;
+        this.owner = owner;
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * The lease a run executes under.
+     */
+    public record JobLease(String jobName, String owner, long fencingToken) {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    /**
+     * Runs the job when this node holds or can take its lease; otherwise does nothing. A database error while
+     * taking the lease counts as not holding it.
+     *
+     * @return whether the job ran
+     */
+    public boolean runIfLeader(Consumer<JobLease> job) {
+        Long token = acquire();
+        if (token == null) {
+            skipped.increment();
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            job.accept(new JobLease(name, owner, token));
+            runs.increment();
+            return true;
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            lastRunMillis.set((System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Whether the lease is still this node's and unexpired.
+     */
+    public boolean isHeld(JobLease lease) {
+        Long held = jdbcTemplate.queryForObject(HELD, Long.class, lease.jobName(), lease.owner(), lease.fencingToken());
+        return held != null && held > 0;
+    }
+
+    /**
+     * Checks, inside the caller's transaction, that the run's lease is still current, and share-locks its row so
+     * no other node can take it over before the transaction commits. Must be the first statement of the
+     * transaction, whose start time {@code now()} stands for.
+     *
+     * @return false when the lease has expired or passed to another node; the transaction must then write nothing
+     */
+    public boolean fence(JobLease lease) {
+        List<Long> held = jdbcTemplate.queryForList(FENCE, Long.class, lease.jobName(), lease.owner(), lease.fencingToken());
+        if (held.isEmpty()) {
+            log.warn("Fenced off a stale run: job={}, owner={}, fencingToken={}", lease.jobName(), lease.owner(),
+                    lease.fencingToken());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives the lease up so another node can take it without waiting for it to expire.
+     */
+    void release() {
+        Long token = fencingToken;
+        if (token == null) {
+            return;
+        }
+        fencingToken = null;
+        try {
+            jdbcTemplate.update(RELEASE, name, owner, token);
+            log.info("Released lease: job={}, owner={}, fencingToken={}", name, owner, token);
+        } catch (Exception e) {
+            log.error("Error releasing lease of job {}, it expires on its own", name, e);
+        }
+    }
+
+    boolean isLeader() {
+        return fencingToken != null;
+    }
+
+    Long getFencingToken() {
+        return fencingToken;
+    }
+
+    long getRuns() {
+        return runs.sum();
+    }
+
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    long getLastRunMillis() {
+        return lastRunMillis.get();
+    }
+
+    private Long acquire() {
+        List<Long> tokens;
+        try {
+            tokens = jdbcTemplate.queryForList(ACQUIRE, Long.class, name, owner, leaseDuration.toMillis());
+        } catch (Exception e) {
+            log.error("Error acquiring lease of job {}, skipping this run", name, e);
+            tokens = List.of();
+        }
+        Long previous = fencingToken;
+        Long token = tokens.isEmpty() ? null : tokens.get(0);
+        fencingToken = token;
+        if (token != null && !token.equals(previous)) {
+            acquisitions.increment();
+            log.info("Acquired lease: job={}, owner={}, fencingToken={}", name, owner, token);
+        } else if (token == null && previous != null) {
+            log.warn("Lost lease: job={}, owner={}, fencingToken={}", name, owner, previous);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,134 @@
+package com.spribe.booking.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of ids with deadlines. Level {@code L} has {@value #SLOTS} slots of
+ * {@code 64^L} ticks each; an id sits in the lowest level whose span covers its deadline and moves down a level
+ * when the wheel reaches the start of its slot, so scheduling, cancelling and advancing one tick are O(1)
+ * however many ids are pending. Deadlines beyond the top level wait in its farthest slot and are re-placed
+ * when it comes round.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Set<Long>>> levels = new ArrayList<>(LEVELS);
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final Set<Long> overdue = new HashSet<>();
+    private long currentTick;
+
+    HierarchicalTimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<Long>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashSet<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedules the id to fire at the first tick at or after {@code deadlineMillis}, replacing an earlier
+     * schedule of the same id. Past deadlines fire on the next advance.
+     */
+    void schedule(Long id, long deadlineMillis) {
+        cancel(id);
+        long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        deadlines.put(id, deadlineTick);
+        place(id, deadlineTick);
+    }
+
+    void cancel(Long id) {
+        if (deadlines.remove(id) != null) {
+            Set<Long> bucket = buckets.remove(id);
+            if (bucket != null) {
+                bucket.remove(id);
+            }
+        }
+    }
+
+    int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the ids whose deadline has been reached, removing them.
+     */
+    List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        long nowTick = nowMillis / tickMillis;
+        while (currentTick < nowTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            Set<Long> bucket = levels.get(0).get(slot(currentTick, 0));
+            for (Long id : bucket) {
+                due.add(id);
+                forget(id);
+            }
+            bucket.clear();
+        }
+        // scheduled in the past, or cascaded down exactly on their deadline tick
+        for (Long id : overdue) {
+            due.add(id);
+            forget(id);
+        }
+        overdue.clear();
+        return due;
+    }
+
+    private void cascade(int level) {
+        Set<Long> bucket = levels.get(level).get(slot(currentTick, level));
+        List<Long> moving = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Long id : moving) {
+            place(id, deadlines.get(id));
+        }
+    }
+
+    private void place(Long id, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            overdue.add(id);
+            buckets.put(id, overdue);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // beyond the top level: park in its farthest slot and re-place when the wheel gets there
+        long tick = delta >= 1L << (SLOT_BITS * LEVELS)
+                ? currentTick + ((long) (SLOTS - 1) << (SLOT_BITS * (LEVELS - 1)))
+                : deadlineTick;
+        Set<Long> bucket = levels.get(level).get(slot(tick, level));
+        bucket.add(id);
+        buckets.put(id, bucket);
+    }
+
+    private void forget(Long id) {
+        deadlines.remove(id);
+        buckets.remove(id);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -0,0 +1,286 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.service.BookingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional single-writer path for booking creation ({@code booking.hot-unit-queue.enabled}).
+ * <p>
+ * Requests are queued per unit and drained by one worker at a time per unit. The worker takes up to a batch of
+ * requests, checks them in arrival order against the unit's current occupancy and against each other, rejects
+ * the losers straight away without touching the database again, and books all winners in one transaction.
+ * A flash sale on one unit therefore costs one occupancy read and one commit per batch instead of hundreds of
+ * transactions contending on the same lock. A unit's queue only lives while it has pending requests.
+ * <p>
+ * With the mode off, callers book directly through {@link BookingService#bookUnit} instead, see
+ * {@link #isEnabled}; {@link #submit} then still books on the calling thread. On shutdown the workers get a grace
+ * period to drain what is queued; requests still waiting after it fail instead of being left unresolved.
+ */
+@Slf4j
+@Component
+public class HotUnitBookingQueue {
+
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPendingPerUnit;
+    private final ExecutorService workers;
+
+    private final Map<Long, UnitQueue> queues = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public HotUnitBookingQueue(BookingService bookingService, BookingRepository bookingRepository,
+                               @Value("${booking.hot-unit-queue.enabled:false}") boolean enabled,
+                               @Value("${booking.hot-unit-queue.batch-size:100}") int batchSize,
+                               @Value("${booking.hot-unit-queue.max-pending-per-unit:1000}") int maxPendingPerUnit,
+                               @Value("${booking.hot-unit-queue.workers:8}") int workers,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPendingPerUnit = maxPendingPerUnit;
+        this.workers = virtualThreads ? virtualWorkers() : platformWorkers(workers);
+    }
+
+    /**
+     * One virtual thread per unit drain; how many of them hit the database at once is bounded by the data source.
+     */
+    private static ExecutorService virtualWorkers() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hot-unit-booking-", 1).factory());
+    }
+
+    private static ExecutorService platformWorkers(int workers) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "hot-unit-booking-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class UnitQueue {
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+        private boolean draining;
+    }
+
+    private record Pending(BookingCreateRequest request, CompletableFuture<Booking> result) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Booking> submit(BookingCreateRequest request) {
+        if (request.getUnitId() == null || request.getUserId() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unit and user are required."));
+        }
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(bookingService.bookUnit(request));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(shuttingDown());
+        }
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        boolean[] startWorker = new boolean[1];
+        queues.compute(request.getUnitId(), (unitId, existing) -> {
+            UnitQueue queue = existing != null ? existing : new UnitQueue();
+            if (queue.pending.size() >= maxPendingPerUnit) {
+                pending.result().completeExceptionally(new IllegalStateException("Unit is busy, please try again."));
+                return queue;
+            }
+            queue.pending.add(pending);
+            if (!queue.draining) {
+                queue.draining = true;
+                startWorker[0] = true;
+            }
+            return queue;
+        });
+        if (startWorker[0]) {
+            try {
+                workers.execute(() -> drain(request.getUnitId()));
+            } catch (RejectedExecutionException e) {
+                // no worker will come for this unit, so nothing queued for it may keep waiting
+                abandon(request.getUnitId(), shuttingDown());
+            }
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Hot unit workers still busy after {} s, failing queued requests", SHUTDOWN_GRACE_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        IllegalStateException cause = shuttingDown();
+        List.copyOf(queues.keySet()).forEach(unitId -> abandon(unitId, cause));
+    }
+
+    private static IllegalStateException shuttingDown() {
+        return new IllegalStateException("Booking queue is shutting down, please try again.");
+    }
+
+    /**
+     * Drops the unit's queue and fails every request still in it. A worker draining the unit finds the queue
+     * gone and stops; a later request starts a fresh queue.
+     */
+    private void abandon(Long unitId, Throwable cause) {
+        UnitQueue queue = queues.remove(unitId);
+        if (queue == null) {
+            return;
+        }
+        List<Pending> left = List.copyOf(queue.pending);
+        if (!left.isEmpty()) {
+            log.warn("Failing {} queued booking requests: unitId={}", left.size(), unitId);
+        }
+        left.forEach(pending -> pending.result().completeExceptionally(cause));
+    }
+
+    /**
+     * Runs batches until the unit's queue is empty. A batch that fails in any way fails only its own requests;
+     * if the loop itself dies, the finally block fails what is left so the unit does not stay marked as draining
+     * with nobody draining it.
+     */
+    private void drain(Long unitId) {
+        boolean done = false;
+        try {
+            done = drainBatches(unitId);
+        } finally {
+            if (!done) {
+                abandon(unitId, new IllegalStateException("Booking could not be processed, please try again."));
+            }
+        }
+    }
+
+    private boolean drainBatches(Long unitId) {
+        while (true) {
+            List<Pending> batch = new ArrayList<>();
+            queues.computeIfPresent(unitId, (id, queue) -> {
+                while (batch.size() < batchSize && !queue.pending.isEmpty()) {
+                    batch.add(queue.pending.poll());
+                }
+                if (batch.isEmpty()) {
+                    queue.draining = false;
+                    return null;
+                }
+                return queue;
+            });
+            if (batch.isEmpty()) {
+                return true;
+            }
+            try {
+                process(unitId, batch);
+            } catch (Throwable e) {
+                log.error("Hot unit batch failed: unitId={}", unitId, e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+        }
+    }
+
+    private void process(Long unitId, List<Pending> batch) {
+        List<Pending> candidates = new ArrayList<>();
+        List<LocalDate[]> ranges = new ArrayList<>();
+        LocalDate spanStart = null;
+        LocalDate spanEnd = null;
+        for (Pending pending : batch) {
+            LocalDate[] range = parse(pending.request());
+            if (range == null) {
+                // malformed requests fail exactly as they would on the direct path
+                settleAlone(pending);
+                continue;
+            }
+            candidates.add(pending);
+            ranges.add(range);
+            spanStart = spanStart == null || range[0].isBefore(spanStart) ? range[0] : spanStart;
+            spanEnd = spanEnd == null || range[1].isAfter(spanEnd) ? range[1] : spanEnd;
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<LocalDate[]> taken = new ArrayList<>();
+        for (BookingPeriod period : bookingRepository.findPeriodsOverlapping(unitId, spanStart, spanEnd)) {
+            taken.add(new LocalDate[]{period.getStartDate(), period.getEndDate()});
+        }
+        List<Pending> winners = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            LocalDate[] range = ranges.get(i);
+            if (taken.stream().anyMatch(other -> !other[0].isAfter(range[1]) && !other[1].isBefore(range[0]))) {
+                candidates.get(i).result().completeExceptionally(
+                        new IllegalStateException("Unit is not available for the selected dates."));
+            } else {
+                winners.add(candidates.get(i));
+                taken.add(range);
+            }
+        }
+        log.info("Hot unit batch: unitId={}, requests={}, winners={}", unitId, batch.size(), winners.size());
+        if (winners.isEmpty()) {
+            return;
+        }
+
+        List<Booking> booked;
+        try {
+            booked = bookingService.bookUnits(winners.stream().map(Pending::request).toList());
+        } catch (RuntimeException e) {
+            // e.g. another node booked the unit or a user does not exist; settle each winner on its own
+            log.warn("Hot unit batch commit failed, booking winners one by one: unitId={}", unitId, e);
+            winners.forEach(this::settleAlone);
+            return;
+        }
+        for (int i = 0; i < winners.size(); i++) {
+            winners.get(i).result().complete(booked.get(i));
+        }
+    }
+
+    private void settleAlone(Pending pending) {
+        try {
+            pending.result().complete(bookingService.bookUnit(pending.request()));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private static LocalDate[] parse(BookingCreateRequest request) {
+        try {
+            LocalDate startDate = LocalDate.parse(request.getStart());
+            LocalDate endDate = LocalDate.parse(request.getEnd());
+            return startDate.isBefore(endDate) ? new LocalDate[]{startDate, endDate} : null;
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+    }
+}
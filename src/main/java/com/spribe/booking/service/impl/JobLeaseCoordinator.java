@@ -0,0 +1,93 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.JobLeaseStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets scheduled jobs run on one node of the cluster at a time. A job registers once under a unique name and
+ * wraps each run in {@link ClusterJob#runIfLeader}; leases live in the {@code job_leases} table, so every node
+ * pointing at the same database takes part without further setup. Leases held by this node are released on
+ * shutdown so another node takes over on its next run.
+ */
+@Slf4j
+@Component
+public class JobLeaseCoordinator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final Map<String, ClusterJob> jobs = new ConcurrentHashMap<>();
+
+    public JobLeaseCoordinator(JdbcTemplate jdbcTemplate, @Value("${booking.jobs.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the JVM name is pid@host; the suffix tells apart two contexts in one JVM
+        this.nodeId = nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+    }
+
+    /**
+     * Registers a cluster-wide job.
+     *
+     * @param leaseDuration how long a lease lasts without a renewing run; should exceed the run time and the
+     *                      interval between runs, so the leader keeps the lease from run to run
+     * @throws IllegalArgumentException when the name is already registered
+     */
+    public ClusterJob register(String name, Duration leaseDuration) {
+        ClusterJob job = new ClusterJob(jdbcTemplate, name, nodeId, leaseDuration);
+        if (jobs.putIfAbsent(name, job) != null) {
+            throw new IllegalArgumentException("Job " + name + " is already registered.");
+        }
+        log.info("Cluster job registered: name={}, lease={}, node={}", name, leaseDuration, nodeId);
+        return job;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * The lease of every registered job as stored in the database, with this node's counters.
+     */
+    public List<JobLeaseStats> getStats() {
+        Map<String, Map<String, Object>> leases = new HashMap<>();
+        try {
+            for (Map<String, Object> row : jdbcTemplate.queryForList(
+                    "SELECT job_name, owner, fencing_token, leased_until FROM job_leases")) {
+                leases.put((String) row.get("job_name"), row);
+            }
+        } catch (Exception e) {
+            log.error("Error reading job leases", e);
+        }
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ClusterJob::getName))
+                .map(job -> {
+                    Map<String, Object> lease = leases.getOrDefault(job.getName(), Map.of());
+                    Timestamp leasedUntil = (Timestamp) lease.get("leased_until");
+                    return new JobLeaseStats(job.getName(), job.isLeader(), (String) lease.get("owner"),
+                            lease.get("fencing_token") != null ? ((Number) lease.get("fencing_token")).longValue() : null,
+                            leasedUntil != null ? leasedUntil.toLocalDateTime() : null,
+                            job.getRuns(), job.getSkipped(), job.getAcquisitions(), job.getFailures(),
+                            job.getLastRunMillis());
+                })
+                .toList();
+    }
+
+    @PreDestroy
+    void releaseAll() {
+        jobs.values().forEach(ClusterJob::release);
+    }
+}
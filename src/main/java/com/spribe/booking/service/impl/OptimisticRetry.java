@@ -0,0 +1,94 @@
+package com.spribe.booking.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a read-modify-write in its own transaction and runs it again when it lost an optimistic lock to a
+ * concurrent writer, so the next attempt decides on the row as it is now. Attempts are bounded by
+ * {@code booking.retry.max-attempts} and spaced by a random delay of up to {@code base-backoff} doubled per
+ * attempt and capped at {@code max-backoff}, so writers that collided do not collide again in lockstep.
+ * <p>
+ * Must not be called inside a transaction: a retry needs a fresh one to see the winning write.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           @Value("${booking.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${booking.retry.base-backoff:10ms}") Duration baseBackoff,
+                           @Value("${booking.retry.max-backoff:200ms}") Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("booking.retry.max-attempts must be at least 1.");
+        }
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    /**
+     * Runs the action in a new transaction, retrying it on optimistic lock conflicts.
+     *
+     * @throws IllegalStateException when every attempt conflicted
+     */
+    public void run(String operation, Runnable action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.execute(status -> {
+                    action.run();
+                    return null;
+                });
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt == maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Giving up on {} after {} conflicting attempts", operation, attempt);
+                    throw new IllegalStateException("Booking was modified concurrently, please try again.", e);
+                }
+                long backoff = backoffMillis(attempt);
+                log.info("Conflict on {} (attempt {}/{}), retrying in {} ms", operation, attempt, maxAttempts, backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    long getConflicts() {
+        return conflicts.sum();
+    }
+
+    long getExhausted() {
+        return exhausted.sum();
+    }
+
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a booking update.", e);
+        }
+    }
+}
@@ -1,53 +1,290 @@
 package com.spribe.booking.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spribe.booking.dto.AvailabilityCacheStats;
 import com.spribe.booking.service.UnitAvailabilityCacheService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Two-level cache of available-unit counts keyed by date range: a small in-process L1 in front of Redis.
+ * <p>
+ * Every day has a version counter in Redis, and a count is cached under a key carrying the sum of the versions
+ * of its range's days as read before the count was computed. Invalidating a booking's range first increments
+ * the version of each of its days, so every cached range overlapping it moves to a key no count has been stored
+ * under yet; a count computed before the booking committed but stored after its invalidation lands under the
+ * old key and is never read again. The versions only ever grow while a count built on them is cached, so a sum
+ * is never seen twice.
+ * <p>
+ * Next to every cached count, its key is also added to a per-day index set for each day of the range, so an
+ * invalidation can delete the overlapping entries it just made unreachable without a {@code KEYS} scan. The
+ * index only frees memory early; correctness rests on the versions.
+ * <p>
+ * Invalidations run once the booking transaction commits and are also published on a Redis channel so every
+ * node drops its overlapping L1 entries; L1 writes are checked against a local generation the same way, and
+ * the short L1 TTL bounds staleness if a message is lost.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UnitAvailabilityCacheServiceImpl implements UnitAvailabilityCacheService {
 
-    private static final Duration TTL = Duration.ofMinutes(10);
+    static final String INVALIDATION_CHANNEL = "unit_availability:invalidations";
+    private static final Duration TTL = Duration.ofHours(6);
+    // outlives every count cached against it, so a version never restarts under a live entry
+    private static final Duration VERSION_TTL = TTL.multipliedBy(2);
+    private static final long NO_VERSION = -1;
+    private static final Duration LOCAL_TTL = Duration.ofSeconds(30);
+    private static final long LOCAL_MAX_ENTRIES = 10_000;
+    private static final long MAX_CACHED_RANGE_DAYS = 366;
     private final RedisTemplate<String, Long> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
 
-    private String key(LocalDate start, LocalDate end) {
-        return "unit_availability:" + start + ":" + end;
+    private final Cache<DateRange, Long> localCache = Caffeine.newBuilder()
+            .maximumSize(LOCAL_MAX_ENTRIES)
+            .expireAfterWrite(LOCAL_TTL)
+            .recordStats()
+            .build();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder redisEvictions = new LongAdder();
+    private final AtomicLong localGeneration = new AtomicLong();
+
+    private record DateRange(LocalDate start, LocalDate end) {
+
+        boolean overlaps(LocalDate otherStart, LocalDate otherEnd) {
+            return !start.isAfter(otherEnd) && !end.isBefore(otherStart);
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    private String key(LocalDate start, LocalDate end, long version) {
+        return "unit_availability:" + start + ":" + end + ":" + version;
+    }
+
+    private String dayVersionKey(LocalDate day) {
+        return "unit_availability_version:" + day;
+    }
+
+    private List<String> dayVersionKeys(LocalDate start, LocalDate end) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            keys.add(dayVersionKey(day));
+        }
+        return keys;
+    }
+
+    private String dayIndexKey(LocalDate day) {
+        return "unit_availability_index:" + day;
+    }
+
+    private List<String> dayIndexKeys(LocalDate start, LocalDate end) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            keys.add(dayIndexKey(day));
+        }
+        return keys;
     }
 
     @Override
-    public Long getCachedAvailableCount(LocalDate startDate, LocalDate endDate) {
+    public Lookup lookupAvailableCount(LocalDate startDate, LocalDate endDate) {
+        DateRange range = new DateRange(startDate, endDate);
+        long generation = localGeneration.get();
+        Long local = localCache.getIfPresent(range);
+        if (local != null) {
+            return new Lookup(startDate, endDate, local, NO_VERSION, generation);
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_CACHED_RANGE_DAYS) {
+            return new Lookup(startDate, endDate, null, NO_VERSION, generation);
+        }
+        long version = NO_VERSION;
         try {
-            Long value = redisTemplate.opsForValue().get(key(startDate, endDate));
-            log.info("Cache get: key={}, value={}", key(startDate, endDate), value);
-            return value;
+            version = version(startDate, endDate);
+            String key = key(startDate, endDate, version);
+            Long value = redisTemplate.opsForValue().get(key);
+            log.info("Cache get: key={}, value={}", key, value);
+            if (value != null) {
+                redisHits.increment();
+                putLocal(range, value, generation);
+            } else {
+                redisMisses.increment();
+            }
+            return new Lookup(startDate, endDate, value, version, generation);
         } catch (Exception e) {
-            log.error("Error getting cache for key={}", key(startDate, endDate), e);
-            return null;
+            log.error("Error getting cache for range {} - {}", startDate, endDate, e);
+            return new Lookup(startDate, endDate, null, version, generation);
+        }
+    }
+
+    /**
+     * The sum of the versions of the range's days; a day that was never invalidated counts as zero.
+     */
+    private long version(LocalDate startDate, LocalDate endDate) {
+        List<String> versions = stringRedisTemplate.opsForValue().multiGet(dayVersionKeys(startDate, endDate));
+        long sum = 0;
+        if (versions != null) {
+            for (String version : versions) {
+                sum += version != null ? Long.parseLong(version) : 0;
+            }
         }
+        return sum;
     }
 
     @Override
-    public void putAvailableCount(LocalDate startDate, LocalDate endDate, long count) {
+    public void putAvailableCount(Lookup miss, long count) {
+        LocalDate startDate = miss.startDate();
+        LocalDate endDate = miss.endDate();
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_CACHED_RANGE_DAYS) {
+            log.info("Range too long to cache: {} - {}", startDate, endDate);
+            return;
+        }
+        putLocal(new DateRange(startDate, endDate), count, miss.localGeneration());
+        if (miss.version() == NO_VERSION) {
+            return;
+        }
+        String key = key(startDate, endDate, miss.version());
         try {
-            redisTemplate.opsForValue()
-                    .set(key(startDate, endDate), count, TTL);
-        } catch (Exception ignored) {}
+            List<String> dayKeys = dayIndexKeys(startDate, endDate);
+            List<String> versionKeys = dayVersionKeys(startDate, endDate);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                for (String dayKey : dayKeys) {
+                    strings.sAdd(dayKey, key);
+                    strings.expire(dayKey, TTL.toSeconds());
+                }
+                for (String versionKey : versionKeys) {
+                    strings.expire(versionKey, VERSION_TTL.toSeconds());
+                }
+                return null;
+            });
+            redisTemplate.opsForValue().set(key, count, TTL);
+        } catch (Exception e) {
+            log.error("Error caching count for key={}", key, e);
+        }
+    }
+
+    /**
+     * Caches the value locally unless an overlapping invalidation started after the lookup; checked again after
+     * the write, since an invalidation may run between the check and the write.
+     */
+    private void putLocal(DateRange range, long value, long generation) {
+        if (localGeneration.get() != generation) {
+            return;
+        }
+        localCache.put(range, value);
+        if (localGeneration.get() != generation) {
+            localCache.invalidate(range);
+        }
     }
 
     @Override
     public void invalidate(LocalDate startDate, LocalDate endDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(startDate, endDate);
+                }
+            });
+        } else {
+            invalidateNow(startDate, endDate);
+        }
+    }
+
+    /**
+     * Deferred to commit by {@link #invalidate}: before it, the booking rows and the availability index still
+     * hold the old state, and a count computed from them in between would be cached for the full TTL.
+     */
+    private void invalidateNow(LocalDate startDate, LocalDate endDate) {
+        invalidateLocal(startDate, endDate);
         try {
-            redisTemplate.delete(key(startDate, endDate));
-            log.info("Cache invalidated: key={}", key(startDate, endDate));
+            // versions first: from here on no count computed earlier can be stored where a reader looks
+            List<String> versionKeys = dayVersionKeys(startDate, endDate);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                for (String versionKey : versionKeys) {
+                    strings.incr(versionKey);
+                    strings.expire(versionKey, VERSION_TTL.toSeconds());
+                }
+                return null;
+            });
+            // only entries under the old versions can be in the index sets now; removing them frees memory
+            List<String> dayKeys = dayIndexKeys(startDate, endDate);
+            Set<String> overlapping = stringRedisTemplate.opsForSet().union(dayKeys);
+            if (overlapping != null && !overlapping.isEmpty()) {
+                Long deleted = redisTemplate.delete(overlapping);
+                redisEvictions.add(deleted != null ? deleted : 0);
+                String[] members = overlapping.toArray(new String[0]);
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection strings = (StringRedisConnection) connection;
+                    for (String dayKey : dayKeys) {
+                        strings.sRem(dayKey, members);
+                    }
+                    return null;
+                });
+            }
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, startDate + ":" + endDate);
+            log.info("Cache invalidated: {} ranges overlapping {} - {}",
+                    overlapping != null ? overlapping.size() : 0, startDate, endDate);
         } catch (Exception e) {
-            log.error("Error invalidating cache for key={}", key(startDate, endDate), e);
+            log.error("Error invalidating cache for range {} - {}", startDate, endDate, e);
         }
     }
+
+    @Override
+    public AvailabilityCacheStats getStats() {
+        CacheStats local = localCache.stats();
+        return new AvailabilityCacheStats(
+                local.hitCount(),
+                local.missCount(),
+                local.evictionCount(),
+                localCache.estimatedSize(),
+                redisHits.sum(),
+                redisMisses.sum(),
+                redisEvictions.sum()
+        );
+    }
+
+    void onInvalidationMessage(String message) {
+        try {
+            int separator = message.indexOf(':');
+            invalidateLocal(LocalDate.parse(message.substring(0, separator)), LocalDate.parse(message.substring(separator + 1)));
+        } catch (Exception e) {
+            log.error("Ignoring malformed cache invalidation message: {}", message, e);
+        }
+    }
+
+    private void invalidateLocal(LocalDate startDate, LocalDate endDate) {
+        localGeneration.incrementAndGet();
+        localCache.asMap().keySet().removeIf(range -> range.overlaps(startDate, endDate));
+    }
 }
@@ -0,0 +1,129 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes booking attempts for the same unit while attempts for different units run in parallel.
+ * <p>
+ * Inside a node, attempts queue on one of a fixed set of lock stripes chosen by unit id, so only one of them at
+ * a time goes on to the database. Across nodes, {@code pg_advisory_xact_lock(unitId)} does the same in Postgres.
+ * Both are held until the surrounding transaction completes, so the next attempt's overlap check sees the
+ * previous attempt's committed booking. Turning the mode off ({@code booking.unit-lock.enabled}) leaves the
+ * exclusion constraint as the only guard.
+ */
+@Slf4j
+@Component
+public class UnitBookingLock {
+
+    private static final int STRIPES = 1024;
+    private static final long WAIT_SECONDS = 10;
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public UnitBookingLock(BookingRepository bookingRepository,
+                           @Value("${booking.unit-lock.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the unit until the current transaction commits or rolls back.
+     *
+     * @throws IllegalStateException when the lock cannot be taken in time
+     */
+    public void lockUntilCompletion(Long unitId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Unit lock requires an active transaction.");
+        }
+        ReentrantLock stripe = stripeFor(unitId);
+        try {
+            if (!stripe.tryLock(WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for booking lock of unit {}", unitId);
+                throw new IllegalStateException("Unit is busy, please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for unit lock.");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+        bookingRepository.lockUnit(unitId);
+    }
+
+    /**
+     * Locks every unit until the current transaction commits or rolls back. Stripes are taken in stripe order and
+     * advisory locks in unit id order, so concurrent multi-unit bookings cannot deadlock each other.
+     *
+     * @throws IllegalStateException when one of the locks cannot be taken in time
+     */
+    public void lockAllUntilCompletion(Collection<Long> unitIds) {
+        if (!enabled || unitIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Unit lock requires an active transaction.");
+        }
+        TreeMap<Integer, ReentrantLock> ordered = new TreeMap<>();
+        for (Long unitId : unitIds) {
+            int index = stripeIndex(unitId);
+            ordered.put(index, stripes[index]);
+        }
+        List<ReentrantLock> held = new ArrayList<>();
+        try {
+            for (ReentrantLock stripe : ordered.values()) {
+                if (!stripe.tryLock(WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Timed out waiting for booking locks of units {}", unitIds);
+                    throw new IllegalStateException("Unit is busy, please try again.");
+                }
+                held.add(stripe);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            held.forEach(ReentrantLock::unlock);
+            throw new IllegalStateException("Interrupted while waiting for unit lock.");
+        } catch (IllegalStateException e) {
+            held.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+        bookingRepository.lockUnits(unitIds);
+    }
+
+    ReentrantLock stripeFor(Long unitId) {
+        return stripes[stripeIndex(unitId)];
+    }
+
+    private static int stripeIndex(Long unitId) {
+        long h = unitId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,323 @@
+package com.spribe.booking.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.spribe.booking.dto.UnitCreateRequest;
+import com.spribe.booking.dto.UnitImportError;
+import com.spribe.booking.dto.UnitImportResponse;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.enums.UnitImportFormat;
+import com.spribe.booking.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Loads a streamed CSV or NDJSON upload of units. Rows are parsed and validated one at a time; invalid rows are
+ * reported and skipped, valid ones are written in chunks of {@value #CHUNK_SIZE}, each chunk in its own
+ * transaction, so memory stays flat however large the upload is. On Postgres a chunk reserves its ids from
+ * {@code units_id_seq} and goes in through {@code COPY} together with one {@code CREATED} event per unit;
+ * on other databases it falls back to batched INSERTs.
+ * <p>
+ * Chunks that were written before a failure stay committed: a malformed CSV stream or a database error stops
+ * the import, and the rows loaded so far are kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnitBulkImporter {
+
+    static final int CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final BigDecimal MAX_COST = new BigDecimal("99999999.99");
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private static final String COPY_UNITS = "COPY units (id, owner_id, title, description, cost_per_day, type, "
+            + "number_of_rooms, floor) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_EVENTS = "COPY events (entity_type, entity_id, event_type, payload) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_UNIT = "INSERT INTO units (owner_id, title, description, cost_per_day, type, "
+            + "number_of_rooms, floor) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EVENT = "INSERT INTO events (entity_type, entity_id, event_type, payload) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final AvailabilityIndex availabilityIndex;
+
+    /**
+     * Imports every valid row of the upload for the given owner. Must not run inside a transaction, so that
+     * each chunk commits on its own.
+     *
+     * @throws EntityNotFoundException when the owner does not exist
+     * @throws IllegalArgumentException when the stream itself cannot be parsed any further
+     */
+    public UnitImportResponse importUnits(Long ownerId, UnitImportFormat format, InputStream in) {
+        if (ownerId == null || !userRepository.existsById(ownerId)) {
+            log.error("Owner not found: ownerId={}", ownerId);
+            throw new EntityNotFoundException("Owner not found");
+        }
+        ImportRun run = new ImportRun(ownerId);
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        try {
+            if (format == UnitImportFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        run.flush();
+        log.info("Unit import finished: ownerId={}, imported={}, rejected={}", ownerId, run.imported, run.rejected);
+        return new UnitImportResponse(run.imported, run.rejected, run.errors);
+    }
+
+    /**
+     * Reads CSV with a header row naming the {@link UnitCreateRequest} fields; empty fields are treated as absent.
+     */
+    private void readCsv(Reader reader, ImportRun run) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        long row = 0;
+        try (MappingIterator<Map<String, String>> rows = CSV_MAPPER.readerForMapOf(String.class)
+                .with(schema)
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .readValues(reader)) {
+            while (true) {
+                Map<String, String> values;
+                try {
+                    if (!rows.hasNextValue()) {
+                        return;
+                    }
+                    values = rows.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    throw new IllegalArgumentException("Malformed CSV after row " + row + ".");
+                }
+                run.accept(++row, () -> objectMapper.convertValue(values, UnitCreateRequest.class));
+            }
+        }
+    }
+
+    private void readNdjson(Reader reader, ImportRun run) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        long row = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String json = line;
+            run.accept(row, () -> {
+                try {
+                    return objectMapper.readValue(json, UnitCreateRequest.class);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException(e.getOriginalMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Checks every constraint the {@code units} table enforces, so a bad row is reported on its own instead of
+     * failing the COPY of its whole chunk.
+     */
+    static void validate(UnitCreateRequest unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("row is empty");
+        }
+        if (unit.getTitle() != null && unit.getTitle().codePointCount(0, unit.getTitle().length()) > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title must be at most " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (containsNul(unit.getTitle()) || containsNul(unit.getDescription())) {
+            throw new IllegalArgumentException("title and description must not contain NUL characters");
+        }
+        if (unit.getType() == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        if (unit.getNumberOfRooms() <= 0) {
+            throw new IllegalArgumentException("numberOfRooms must be positive");
+        }
+        // stored as NUMERIC(10, 2), so the rounded value is what has to be positive and fit
+        BigDecimal cost = Double.isFinite(unit.getCostPerDay())
+                ? BigDecimal.valueOf(unit.getCostPerDay()).setScale(2, RoundingMode.HALF_UP)
+                : null;
+        if (cost == null || cost.signum() <= 0 || cost.compareTo(MAX_COST) > 0) {
+            throw new IllegalArgumentException("costPerDay must be positive and at most " + MAX_COST);
+        }
+    }
+
+    private static boolean containsNul(String value) {
+        return value != null && value.indexOf('\0') >= 0;
+    }
+
+    /**
+     * Writes one chunk and registers its units with the availability index once it commits.
+     */
+    private int writeChunk(Long ownerId, List<UnitCreateRequest> units) {
+        Integer written = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            List<Long> ids = connection.isWrapperFor(PGConnection.class)
+                    ? copyChunk(connection, ownerId, units)
+                    : insertChunk(ownerId, units);
+            ids.forEach(availabilityIndex::registerUnit);
+            return ids.size();
+        }));
+        return written != null ? written : 0;
+    }
+
+    private List<Long> copyChunk(Connection connection, Long ownerId, List<UnitCreateRequest> units) throws SQLException {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT nextval('units_id_seq') FROM generate_series(1, ?)",
+                Long.class, units.size());
+        StringBuilder unitRows = new StringBuilder(units.size() * 96);
+        StringBuilder eventRows = new StringBuilder(units.size() * 160);
+        for (int i = 0; i < units.size(); i++) {
+            UnitCreateRequest unit = units.get(i);
+            Long id = ids.get(i);
+            appendCsvRow(unitRows, id, ownerId, unit.getTitle(), unit.getDescription(),
+                    BigDecimal.valueOf(unit.getCostPerDay()), unit.getType(), unit.getNumberOfRooms(), unit.getFloor());
+            appendCsvRow(eventRows, "UNIT", id, "CREATED", payload(id, unit));
+        }
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+            copyManager.copyIn(COPY_UNITS, new StringReader(unitRows.toString()));
+            copyManager.copyIn(COPY_EVENTS, new StringReader(eventRows.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids;
+    }
+
+    private List<Long> insertChunk(Long ownerId, List<UnitCreateRequest> units) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_UNIT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        UnitCreateRequest unit = units.get(i);
+                        ps.setLong(1, ownerId);
+                        ps.setString(2, unit.getTitle());
+                        ps.setString(3, unit.getDescription());
+                        ps.setBigDecimal(4, BigDecimal.valueOf(unit.getCostPerDay()));
+                        ps.setString(5, unit.getType().name());
+                        ps.setShort(6, unit.getNumberOfRooms());
+                        ps.setShort(7, unit.getFloor());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return units.size();
+                    }
+                }, keys);
+        List<Long> ids = new ArrayList<>(units.size());
+        List<Object[]> events = new ArrayList<>(units.size());
+        for (int i = 0; i < units.size(); i++) {
+            // key column names differ in case between databases
+            Long id = ((Number) keys.getKeyList().get(i).values().iterator().next()).longValue();
+            ids.add(id);
+            events.add(new Object[]{"UNIT", id, "CREATED", payload(id, units.get(i))});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events);
+        return ids;
+    }
+
+    private String payload(Long id, UnitCreateRequest unit) {
+        try {
+            return objectMapper.writeValueAsString(new UnitResponse(id, unit.getTitle(), unit.getDescription(),
+                    BigDecimal.valueOf(unit.getCostPerDay()), unit.getType(), unit.getNumberOfRooms(), unit.getFloor()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize unit " + id, e);
+        }
+    }
+
+    /**
+     * Appends one line in the {@code COPY ... (FORMAT csv)} dialect: {@code null} is an unquoted empty field
+     * and becomes NULL, everything else is quoted with embedded quotes doubled.
+     */
+    static void appendCsvRow(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (values[i] != null) {
+                out.append('"').append(values[i].toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        out.append('\n');
+    }
+
+    private static String errorMessage(IllegalArgumentException e) {
+        return e.getCause() instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+    }
+
+    private final class ImportRun {
+
+        private final Long ownerId;
+        private final List<UnitCreateRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<UnitImportError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportRun(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        private void accept(long row, Supplier<UnitCreateRequest> parse) {
+            UnitCreateRequest unit;
+            try {
+                unit = parse.get();
+                validate(unit);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new UnitImportError(row, errorMessage(e)));
+                }
+                return;
+            }
+            chunk.add(unit);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            imported += writeChunk(ownerId, chunk);
+            log.info("Unit import progress: ownerId={}, imported={}, rejected={}", ownerId, imported, rejected);
+            chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.service.UnitCalendarCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis cache of unit calendars, one key per unit and month holding a {@code 0}/{@code 1} string with a
+ * character per day. Eviction is deferred to commit so a concurrent reader cannot cache the state the
+ * booking transaction is about to replace.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UnitCalendarCacheServiceImpl implements UnitCalendarCacheService {
+
+    private static final Duration TTL = Duration.ofHours(6);
+    private static final char BOOKED = '1';
+    private static final char FREE = '0';
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private String key(Long unitId, YearMonth month) {
+        return "unit_calendar:" + unitId + ":" + month;
+    }
+
+    @Override
+    public Map<YearMonth, boolean[]> getCachedMonths(Long unitId, Collection<YearMonth> months) {
+        Map<YearMonth, boolean[]> cached = new HashMap<>();
+        List<YearMonth> ordered = new ArrayList<>(months);
+        try {
+            List<String> values = stringRedisTemplate.opsForValue()
+                    .multiGet(ordered.stream().map(month -> key(unitId, month)).toList());
+            if (values == null) {
+                return cached;
+            }
+            for (int i = 0; i < ordered.size(); i++) {
+                String value = values.get(i);
+                if (value != null && value.length() == ordered.get(i).lengthOfMonth()) {
+                    cached.put(ordered.get(i), decode(value));
+                }
+            }
+            log.info("Calendar cache get: unitId={}, requested={}, hits={}", unitId, ordered.size(), cached.size());
+        } catch (Exception e) {
+            log.error("Error reading calendar cache for unitId={}", unitId, e);
+        }
+        return cached;
+    }
+
+    @Override
+    public void putMonth(Long unitId, YearMonth month, boolean[] bookedDays) {
+        try {
+            stringRedisTemplate.opsForValue().set(key(unitId, month), encode(bookedDays), TTL);
+        } catch (Exception e) {
+            log.error("Error writing calendar cache for unitId={}, month={}", unitId, month, e);
+        }
+    }
+
+    @Override
+    public void evict(Long unitId, LocalDate startDate, LocalDate endDate) {
+        List<String> keys = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            keys.add(key(unitId, month));
+        }
+        Runnable delete = () -> {
+            try {
+                stringRedisTemplate.delete(keys);
+                log.info("Calendar cache evicted: unitId={}, months={}", unitId, keys.size());
+            } catch (Exception e) {
+                log.error("Error evicting calendar cache for unitId={}", unitId, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
+        }
+    }
+
+    private static String encode(boolean[] bookedDays) {
+        char[] chars = new char[bookedDays.length];
+        for (int i = 0; i < bookedDays.length; i++) {
+            chars[i] = bookedDays[i] ? BOOKED : FREE;
+        }
+        return new String(chars);
+    }
+
+    private static boolean[] decode(String value) {
+        boolean[] bookedDays = new boolean[value.length()];
+        for (int i = 0; i < bookedDays.length; i++) {
+            bookedDays[i] = value.charAt(i) == BOOKED;
+        }
+        return bookedDays;
+    }
+}
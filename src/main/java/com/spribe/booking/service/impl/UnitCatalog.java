@@ -0,0 +1,383 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.enums.UnitType;
+import com.spribe.booking.repository.UnitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process copy of the unit catalog, stored column-wise in primitive arrays: cost in cents as
+ * {@code long}, rooms and floor as {@code short}, type as its ordinal {@code byte}. For every sortable field a
+ * permutation of the rows ordered by {@code (key, id)} is kept, so a search walks one permutation, narrowed by
+ * binary search when the filter bounds the sort key, and tests the remaining predicates in a tight loop.
+ * <p>
+ * The columns are an immutable snapshot behind a volatile reference: a new unit produces a new snapshot
+ * (copy-on-write), so readers never lock. Date-range filters are answered from the {@link AvailabilityIndex}
+ * and therefore only served when it is authoritative.
+ * Like the index, the catalog only sees units added through this node, so enable it
+ * ({@code booking.unit-catalog.enabled}) where that holds or where briefly missing new units is acceptable.
+ */
+@Slf4j
+@Component
+public class UnitCatalog {
+
+    static final Set<String> SORT_FIELDS = Set.of("costPerDay", "numberOfRooms", "floor", "id");
+    private static final UnitType[] TYPES = UnitType.values();
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private final UnitRepository unitRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final boolean enabled;
+
+    private final Lock writeLock = new ReentrantLock();
+    private volatile Columns columns;
+
+    public UnitCatalog(UnitRepository unitRepository, AvailabilityIndex availabilityIndex,
+                       @Value("${booking.unit-catalog.enabled:false}") boolean enabled) {
+        this.unitRepository = unitRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Loading unit catalog");
+        writeLock.lock();
+        try (Stream<UnitResponse> rows = unitRepository.streamCatalog()) {
+            columns = Columns.of(rows.toList());
+            log.info("Unit catalog ready: units={}", columns.size);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Whether {@link #search} can answer this filter: the catalog is loaded, the request uses page numbers,
+     * sorts by a column the catalog keeps, and any date range can be checked against an availability index that
+     * sees every write; with several nodes, dated searches go to the database.
+     */
+    public boolean canServe(UnitFilterRequest filter) {
+        if (columns == null || filter.isCursorMode()) {
+            return false;
+        }
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "costPerDay";
+        boolean dated = filter.getStartDate() != null && filter.getEndDate() != null;
+        return SORT_FIELDS.contains(sortBy) && (!dated || availabilityIndex.isAuthoritative());
+    }
+
+    /**
+     * Adds the unit once the surrounding transaction commits. Adding a unit that is already present is a no-op.
+     */
+    public void addUnit(UnitResponse unit) {
+        if (!enabled) {
+            return;
+        }
+        Runnable add = () -> {
+            writeLock.lock();
+            try {
+                if (columns != null) {
+                    columns = columns.with(unit);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add.run();
+                }
+            });
+        } else {
+            add.run();
+        }
+    }
+
+    public PaginatedResponse<UnitResponse> search(UnitFilterRequest filter) {
+        Columns c = columns;
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "costPerDay";
+        boolean descending = "desc".equalsIgnoreCase(filter.getSortDirection());
+        int page = filter.getPage() > 0 ? filter.getPage() : 1;
+        int size = filter.getSize() > 0 ? filter.getSize() : 10;
+        long offset = (long) (page - 1) * size;
+
+        int type = filter.getType() != null ? filter.getType().ordinal() : -1;
+        long minCents = filter.getMinCost() != null ? boundToCents(filter.getMinCost(), RoundingMode.CEILING) : Long.MIN_VALUE;
+        long maxCents = filter.getMaxCost() != null ? boundToCents(filter.getMaxCost(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+        boolean roomsSet = filter.getNumberOfRooms() != null;
+        int rooms = roomsSet ? filter.getNumberOfRooms() : 0;
+        boolean floorSet = filter.getFloor() != null;
+        int floor = floorSet ? filter.getFloor() : 0;
+        boolean dated = filter.getStartDate() != null && filter.getEndDate() != null;
+        LocalDate start = filter.getStartDate();
+        LocalDate end = filter.getEndDate();
+
+        int[] order = c.permutation(sortBy);
+        long lowKey = Long.MIN_VALUE;
+        long highKey = Long.MAX_VALUE;
+        switch (sortBy) {
+            case "costPerDay" -> {
+                lowKey = minCents;
+                highKey = maxCents;
+            }
+            case "numberOfRooms" -> {
+                if (roomsSet) {
+                    lowKey = rooms;
+                    highKey = rooms;
+                }
+            }
+            case "floor" -> {
+                if (floorSet) {
+                    lowKey = floor;
+                    highKey = floor;
+                }
+            }
+            default -> {
+            }
+        }
+        int from = c.firstAtLeast(order, sortBy, lowKey);
+        int to = highKey == Long.MAX_VALUE ? c.size : c.firstAtLeast(order, sortBy, highKey + 1);
+
+        List<UnitResponse> content = new ArrayList<>(size);
+        long matched = 0;
+        for (int i = 0; i < to - from; i++) {
+            int row = order[descending ? to - 1 - i : from + i];
+            if ((type >= 0 && c.types[row] != type)
+                    || c.costCents[row] < minCents || c.costCents[row] > maxCents
+                    || (roomsSet && c.rooms[row] != rooms)
+                    || (floorSet && c.floors[row] != floor)
+                    || (dated && !availabilityIndex.isAvailable(c.ids[row], start, end))) {
+                continue;
+            }
+            if (matched >= offset && content.size() < size) {
+                content.add(c.response(row));
+            }
+            matched++;
+            if (!filter.isIncludeTotal() && content.size() == size) {
+                break;
+            }
+        }
+        return new PaginatedResponse<>(content, filter.isIncludeTotal() ? matched : null, page, size);
+    }
+
+    static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    /**
+     * A filter bound in cents, clamped to the {@code long} range: a bound beyond it excludes or admits every row
+     * just like the clamped value does.
+     */
+    static long boundToCents(BigDecimal amount, RoundingMode rounding) {
+        BigDecimal cents = amount.movePointRight(2).setScale(0, rounding);
+        if (cents.compareTo(MAX_CENTS) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cents.compareTo(MIN_CENTS) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return cents.longValueExact();
+    }
+
+    /**
+     * One immutable snapshot of the catalog. Rows are stored in arrival order; {@code byId}, {@code byCost},
+     * {@code byRooms} and {@code byFloor} are row permutations sorted by their key and then by id.
+     */
+    static final class Columns {
+
+        final int size;
+        final long[] ids;
+        final long[] costCents;
+        final short[] rooms;
+        final short[] floors;
+        final byte[] types;
+        final String[] titles;
+        final String[] descriptions;
+        final int[] byId;
+        final int[] byCost;
+        final int[] byRooms;
+        final int[] byFloor;
+
+        private Columns(int size, long[] ids, long[] costCents, short[] rooms, short[] floors, byte[] types,
+                        String[] titles, String[] descriptions, int[] byId, int[] byCost, int[] byRooms, int[] byFloor) {
+            this.size = size;
+            this.ids = ids;
+            this.costCents = costCents;
+            this.rooms = rooms;
+            this.floors = floors;
+            this.types = types;
+            this.titles = titles;
+            this.descriptions = descriptions;
+            this.byId = byId;
+            this.byCost = byCost;
+            this.byRooms = byRooms;
+            this.byFloor = byFloor;
+        }
+
+        static Columns of(List<UnitResponse> units) {
+            int n = units.size();
+            long[] ids = new long[n];
+            long[] costCents = new long[n];
+            short[] rooms = new short[n];
+            short[] floors = new short[n];
+            byte[] types = new byte[n];
+            String[] titles = new String[n];
+            String[] descriptions = new String[n];
+            for (int row = 0; row < n; row++) {
+                UnitResponse unit = units.get(row);
+                ids[row] = unit.getId();
+                costCents[row] = toCents(unit.getCostPerDay(), RoundingMode.HALF_UP);
+                rooms[row] = (short) unit.getNumberOfRooms();
+                floors[row] = (short) unit.getFloor();
+                types[row] = (byte) unit.getType().ordinal();
+                titles[row] = unit.getTitle();
+                descriptions[row] = unit.getDescription();
+            }
+            return new Columns(n, ids, costCents, rooms, floors, types, titles, descriptions,
+                    sortedRows(n, row -> ids[row], ids),
+                    sortedRows(n, row -> costCents[row], ids),
+                    sortedRows(n, row -> rooms[row], ids),
+                    sortedRows(n, row -> floors[row], ids));
+        }
+
+        /**
+         * Copy-on-write append: every array is copied once and the new row is spliced into each permutation at
+         * its sorted position.
+         */
+        Columns with(UnitResponse unit) {
+            long id = unit.getId();
+            int at = firstAtLeast(byId, "id", id);
+            if (at < size && ids[byId[at]] == id) {
+                return this;
+            }
+            int n = size + 1;
+            int row = size;
+            long[] newIds = Arrays.copyOf(ids, n);
+            long[] newCostCents = Arrays.copyOf(costCents, n);
+            short[] newRooms = Arrays.copyOf(rooms, n);
+            short[] newFloors = Arrays.copyOf(floors, n);
+            byte[] newTypes = Arrays.copyOf(types, n);
+            String[] newTitles = Arrays.copyOf(titles, n);
+            String[] newDescriptions = Arrays.copyOf(descriptions, n);
+            newIds[row] = id;
+            newCostCents[row] = toCents(unit.getCostPerDay(), RoundingMode.HALF_UP);
+            newRooms[row] = (short) unit.getNumberOfRooms();
+            newFloors[row] = (short) unit.getFloor();
+            newTypes[row] = (byte) unit.getType().ordinal();
+            newTitles[row] = unit.getTitle();
+            newDescriptions[row] = unit.getDescription();
+            return new Columns(n, newIds, newCostCents, newRooms, newFloors, newTypes, newTitles, newDescriptions,
+                    insert(byId, at, row),
+                    insert(byCost, firstAfter(byCost, "costPerDay", newCostCents[row], id), row),
+                    insert(byRooms, firstAfter(byRooms, "numberOfRooms", newRooms[row], id), row),
+                    insert(byFloor, firstAfter(byFloor, "floor", newFloors[row], id), row));
+        }
+
+        int[] permutation(String sortBy) {
+            return switch (sortBy) {
+                case "costPerDay" -> byCost;
+                case "numberOfRooms" -> byRooms;
+                case "floor" -> byFloor;
+                default -> byId;
+            };
+        }
+
+        long key(String sortBy, int row) {
+            return switch (sortBy) {
+                case "costPerDay" -> costCents[row];
+                case "numberOfRooms" -> rooms[row];
+                case "floor" -> floors[row];
+                default -> ids[row];
+            };
+        }
+
+        /**
+         * Position of the first row in {@code order} whose key is at least {@code key}.
+         */
+        int firstAtLeast(int[] order, String sortBy, long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (key(sortBy, order[mid]) < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Position at which a row with {@code (key, id)} keeps {@code order} sorted.
+         */
+        private int firstAfter(int[] order, String sortBy, long key, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                long midKey = key(sortBy, order[mid]);
+                if (midKey < key || (midKey == key && ids[order[mid]] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        UnitResponse response(int row) {
+            return new UnitResponse(ids[row], titles[row], descriptions[row], BigDecimal.valueOf(costCents[row], 2),
+                    TYPES[types[row]], rooms[row], floors[row]);
+        }
+
+        private static int[] sortedRows(int n, RowKey key, long[] ids) {
+            return IntStream.range(0, n)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(key::of).thenComparingLong(row -> ids[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private static int[] insert(int[] order, int at, int row) {
+            int[] result = new int[order.length + 1];
+            System.arraycopy(order, 0, result, 0, at);
+            result[at] = row;
+            System.arraycopy(order, at, result, at + 1, order.length - at);
+            return result;
+        }
+
+        @FunctionalInterface
+        private interface RowKey {
+            long of(int row);
+        }
+    }
+}
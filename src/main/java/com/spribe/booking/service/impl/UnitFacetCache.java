@@ -0,0 +1,106 @@
+package com.spribe.booking.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spribe.booking.dto.UnitFacets;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.enums.UnitType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Local cache of facet counts keyed by the normalized filter shape: only the fields that change which units
+ * match, so paging, sorting and equivalent spellings of the same price share an entry.
+ * <p>
+ * Entries with a date range are dropped when a booking overlapping it changes, driven by the same Redis
+ * channel that invalidates the available-count caches on every node; adding a unit clears this node's
+ * entries and the short TTL bounds staleness everywhere else.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnitFacetCache {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+    private static final long MAX_ENTRIES = 1_000;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<FacetKey, UnitFacets> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TTL)
+            .build();
+
+    record FacetKey(UnitType type, BigDecimal minCost, BigDecimal maxCost, Integer numberOfRooms, Integer floor,
+                    LocalDate startDate, LocalDate endDate) {
+
+        static FacetKey of(UnitFilterRequest filter) {
+            // a half-open date range does not filter anything, see UnitServiceImpl#buildPredicates
+            boolean dated = filter.getStartDate() != null && filter.getEndDate() != null;
+            return new FacetKey(
+                    filter.getType(),
+                    normalize(filter.getMinCost()),
+                    normalize(filter.getMaxCost()),
+                    filter.getNumberOfRooms(),
+                    filter.getFloor(),
+                    dated ? filter.getStartDate() : null,
+                    dated ? filter.getEndDate() : null);
+        }
+
+        boolean overlaps(LocalDate otherStart, LocalDate otherEnd) {
+            return startDate != null && !startDate.isAfter(otherEnd) && !endDate.isBefore(otherStart);
+        }
+
+        private static BigDecimal normalize(BigDecimal value) {
+            return value != null ? value.stripTrailingZeros() : null;
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UnitAvailabilityCacheServiceImpl.INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * The loader runs outside the cache's atomic compute: a compute holds a map bin monitor for as long as the
+     * facet query takes, which would pin a virtual thread to its carrier. Two concurrent misses for the same
+     * key may both query; the later result wins.
+     */
+    public UnitFacets get(UnitFilterRequest filter, Supplier<UnitFacets> loader) {
+        FacetKey key = FacetKey.of(filter);
+        UnitFacets cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("Facet cache miss: {}", key);
+        UnitFacets loaded = loader.get();
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    void onInvalidationMessage(String message) {
+        try {
+            int separator = message.indexOf(':');
+            LocalDate start = LocalDate.parse(message.substring(0, separator));
+            LocalDate end = LocalDate.parse(message.substring(separator + 1));
+            cache.asMap().keySet().removeIf(key -> key.overlaps(start, end));
+        } catch (Exception e) {
+            log.error("Ignoring malformed cache invalidation message: {}", message, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.spribe.booking.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset-paginated unit search: the sort key of that row plus its id as a
+ * tie-breaker. Clients only ever see it as an opaque URL-safe token.
+ */
+record UnitSearchCursor(String sortBy, String sortDirection, String sortValue, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = String.join(SEPARATOR, sortBy, sortDirection, sortValue, Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UnitSearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return new UnitSearchCursor(parts[0], parts[1], parts[2], Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // also covers malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
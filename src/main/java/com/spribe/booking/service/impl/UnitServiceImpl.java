@@ -1,27 +1,54 @@
 package com.spribe.booking.service.impl;
 
+import com.spribe.booking.config.BookingSqlFunctions;
+import com.spribe.booking.dto.UnitAvailabilityRequest;
+import com.spribe.booking.dto.UnitCalendarDay;
+import com.spribe.booking.dto.UnitCalendarResponse;
 import com.spribe.booking.dto.UnitFilterRequest;
 import com.spribe.booking.dto.UnitResponse;
 import com.spribe.booking.dto.UnitCreateRequest;
+import com.spribe.booking.dto.UnitFacets;
 import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitImportResponse;
 import com.spribe.booking.entity.Unit;
-import com.spribe.booking.enums.BookingStatus;
+import com.spribe.booking.enums.UnitImportFormat;
+import com.spribe.booking.enums.UnitType;
 import com.spribe.booking.repository.BookingRepository;
 import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.repository.projection.UnitOverlapCount;
 import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
 import com.spribe.booking.service.UnitService;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -29,10 +56,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UnitServiceImpl implements UnitService {
 
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int MAX_AVAILABILITY_UNITS = 500;
+    private static final long MAX_CALENDAR_DAYS = 366;
+    private static final BigDecimal[] PRICE_BUCKET_BOUNDS = {
+            BigDecimal.valueOf(50), BigDecimal.valueOf(100), BigDecimal.valueOf(200), BigDecimal.valueOf(500)};
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("costPerDay", "numberOfRooms", "floor", "id");
+
     private final UnitRepository unitRepository;
     private final BookingRepository bookingRepository;
     private final EntityManager entityManager;
     private final UnitAvailabilityCacheService cacheService;
+    private final AvailabilityIndex availabilityIndex;
+    private final UnitCalendarCacheService calendarCache;
+    private final UnitFacetCache facetCache;
+    private final UnitCatalog unitCatalog;
+    private final UnitBulkImporter unitBulkImporter;
 
     @Override
     public Unit addUnit(UnitCreateRequest request) {
@@ -46,6 +85,9 @@ public class UnitServiceImpl implements UnitService {
                 .floor(request.getFloor())
                 .build();
         Unit saved = unitRepository.save(unit);
+        availabilityIndex.registerUnit(saved.getId());
+        facetCache.invalidateAll();
+        unitCatalog.addUnit(UnitResponse.from(saved));
         log.info("Unit added: id={}", saved.getId());
         return saved;
     }
@@ -53,10 +95,373 @@ public class UnitServiceImpl implements UnitService {
     @Override
     public PaginatedResponse<UnitResponse> searchUnits(UnitFilterRequest filter) {
         log.info("Searching units with filter: {}", filter);
+        if (filter.getStartDate() != null && filter.getEndDate() != null) {
+            requireOrderedRange(filter.getStartDate(), filter.getEndDate());
+        }
+        PaginatedResponse<UnitResponse> response = filter.isCursorMode() ? searchUnitsByCursor(filter) : searchUnitsByPage(filter);
+        if (filter.isFacets()) {
+            response.setFacets(facetCache.get(filter, () -> computeFacets(filter)));
+        }
+        return response;
+    }
+
+    private PaginatedResponse<UnitResponse> searchUnitsByPage(UnitFilterRequest filter) {
+        if (unitCatalog.canServe(filter)) {
+            PaginatedResponse<UnitResponse> response = unitCatalog.search(filter);
+            log.info("Unit search served from catalog, found {} available units", response.getContent().size());
+            return response;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UnitResponse> query = cb.createQuery(UnitResponse.class);
+        Root<Unit> root = query.from(Unit.class);
+        query.select(projection(cb, root));
+        query.where(buildPredicates(cb, query, root, filter));
+
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "costPerDay";
+        boolean descending = "desc".equalsIgnoreCase(filter.getSortDirection());
+        query.orderBy(order(cb, root.get(sortBy), descending), order(cb, root.get("id"), descending));
+
+        Long total = filter.isIncludeTotal() ? countUnits(cb, filter) : null;
+
+        int page = filter.getPage() > 0 ? filter.getPage() : 1;
+        int size = filter.getSize() > 0 ? filter.getSize() : 10;
+        List<UnitResponse> results = entityManager
+                .createQuery(query)
+                .setFirstResult((page - 1) * size)
+                .setMaxResults(size)
+                .getResultList();
+        log.info("Unit search completed, found {} available units", results.size());
+        return new PaginatedResponse<>(results, total, page, size);
+    }
+
+    /**
+     * All facets come from one aggregation grouped by the raw {@code (type, numberOfRooms, costPerDay)} columns,
+     * rolled up into the three facets in a single pass. Grouping by the columns rather than by a bucket
+     * expression keeps the statement free of bound literals that Postgres could not match between the select
+     * list and the group by.
+     */
+    private UnitFacets computeFacets(UnitFilterRequest filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Unit> root = query.from(Unit.class);
+        Path<UnitType> type = root.get("type");
+        Path<Short> rooms = root.get("numberOfRooms");
+        Path<BigDecimal> cost = root.get("costPerDay");
+        query.multiselect(type, rooms, cost, cb.count(root));
+        query.where(buildPredicates(cb, query, root, filter));
+        query.groupBy(type, rooms, cost);
+
+        Map<UnitType, Long> byType = new EnumMap<>(UnitType.class);
+        for (UnitType value : UnitType.values()) {
+            byType.put(value, 0L);
+        }
+        Map<Short, Long> byRooms = new TreeMap<>();
+        Map<String, Long> byPrice = new LinkedHashMap<>();
+        for (int i = 0; i <= PRICE_BUCKET_BOUNDS.length; i++) {
+            byPrice.put(priceBucketLabel(i), 0L);
+        }
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        for (Tuple row : rows) {
+            long count = row.get(3, Long.class);
+            byType.merge(row.get(type), count, Long::sum);
+            byRooms.merge(row.get(rooms), count, Long::sum);
+            byPrice.merge(priceBucketLabel(priceBucket(row.get(cost))), count, Long::sum);
+        }
+        log.info("Facets computed from {} groups", rows.size());
+        return new UnitFacets(byType, byRooms, byPrice);
+    }
+
+    private static int priceBucket(BigDecimal cost) {
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && cost.compareTo(PRICE_BUCKET_BOUNDS[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String priceBucketLabel(int bucket) {
+        String lower = bucket == 0 ? "0" : PRICE_BUCKET_BOUNDS[bucket - 1].toPlainString();
+        return bucket == PRICE_BUCKET_BOUNDS.length ? lower + "+" : lower + "-" + PRICE_BUCKET_BOUNDS[bucket].toPlainString();
+    }
+
+    /**
+     * Answers the whole batch with one grouped query instead of one overlap query per unit.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Boolean> checkAvailability(UnitAvailabilityRequest request) {
+        log.info("Checking availability of {} units for dates: {} - {}",
+                request.getUnitIds() != null ? request.getUnitIds().size() : 0, request.getStartDate(), request.getEndDate());
+        if (request.getUnitIds() == null || request.getUnitIds().isEmpty()) {
+            throw new IllegalArgumentException("At least one unit id is required.");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Start and end dates are required.");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date.");
+        }
+        Set<Long> unitIds = new LinkedHashSet<>(request.getUnitIds());
+        if (unitIds.size() > MAX_AVAILABILITY_UNITS) {
+            throw new IllegalArgumentException("At most " + MAX_AVAILABILITY_UNITS + " units can be checked at once.");
+        }
+
+        Map<Long, Boolean> found = new HashMap<>();
+        for (UnitOverlapCount row : unitRepository.countOverlappingBookings(
+                unitIds, request.getStartDate(), request.getEndDate())) {
+            found.put(row.getUnitId(), row.getOverlapping() == 0);
+        }
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Long unitId : unitIds) {
+            Boolean available = found.get(unitId);
+            if (available != null) {
+                result.put(unitId, available);
+            }
+        }
+        log.info("Availability checked: requested={}, found={}", unitIds.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Serves cached months as they are and computes all missing ones from a single query over the span they
+     * cover, so a render costs at most one database round trip.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UnitCalendarResponse getCalendar(Long unitId, LocalDate from, LocalDate to) {
+        log.info("Getting calendar: unitId={}, from={}, to={}", unitId, from, to);
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("From and to dates are required.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must be before or equal to to date.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Calendar range must not exceed " + MAX_CALENDAR_DAYS + " days.");
+        }
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        Map<YearMonth, boolean[]> bookedByMonth = new HashMap<>(calendarCache.getCachedMonths(unitId, months));
+        List<YearMonth> missing = months.stream().filter(month -> !bookedByMonth.containsKey(month)).toList();
+        if (!missing.isEmpty()) {
+            LocalDate spanStart = missing.get(0).atDay(1);
+            LocalDate spanEnd = missing.get(missing.size() - 1).atEndOfMonth();
+            List<BookingPeriod> periods = unitRepository.findBookedPeriods(unitId, spanStart, spanEnd);
+            if (periods.isEmpty()) {
+                log.error("Unit not found: unitId={}", unitId);
+                throw new EntityNotFoundException("Unit not found");
+            }
+            boolean[] span = sweepBookedDays(periods, spanStart, spanEnd);
+            for (YearMonth month : missing) {
+                int offset = (int) ChronoUnit.DAYS.between(spanStart, month.atDay(1));
+                boolean[] days = Arrays.copyOfRange(span, offset, offset + month.lengthOfMonth());
+                bookedByMonth.put(month, days);
+                calendarCache.putMonth(unitId, month, days);
+            }
+        }
+
+        List<UnitCalendarDay> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            boolean booked = bookedByMonth.get(YearMonth.from(day))[day.getDayOfMonth() - 1];
+            days.add(new UnitCalendarDay(day, !booked));
+        }
+        log.info("Calendar built: unitId={}, days={}, computedMonths={}", unitId, days.size(), missing.size());
+        return new UnitCalendarResponse(unitId, from, to, days);
+    }
+
+    /**
+     * Marks the booked days of {@code from..to} in one pass: walking the days in order, bookings are consumed in
+     * start order while tracking the latest end seen so far, and a day is booked when that end reaches it.
+     */
+    static boolean[] sweepBookedDays(List<BookingPeriod> periods, LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        boolean[] booked = new boolean[(int) (to.toEpochDay() - first) + 1];
+        int next = 0;
+        long coveredUntil = Long.MIN_VALUE;
+        for (int i = 0; i < booked.length; i++) {
+            long day = first + i;
+            while (next < periods.size()
+                    && (periods.get(next).getStartDate() == null || periods.get(next).getStartDate().toEpochDay() <= day)) {
+                BookingPeriod period = periods.get(next++);
+                if (period.getStartDate() != null) {
+                    coveredUntil = Math.max(coveredUntil, period.getEndDate().toEpochDay());
+                }
+            }
+            booked[i] = coveredUntil >= day;
+        }
+        return booked;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUnits(UnitFilterRequest filter, Consumer<UnitResponse> sink) {
+        log.info("Exporting units with filter: {}", filter);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UnitResponse> query = cb.createQuery(UnitResponse.class);
+        Root<Unit> root = query.from(Unit.class);
+        query.select(projection(cb, root));
+        query.where(buildPredicates(cb, query, root, filter));
+        query.orderBy(cb.asc(root.get("id")));
+
+        long exported = 0;
+        try (Stream<UnitResponse> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<UnitResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                exported++;
+            }
+        }
+        log.info("Unit export completed, exported {} rows", exported);
+    }
+
+    /**
+     * Runs outside a transaction: the importer commits every chunk on its own.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UnitImportResponse importUnits(Long ownerId, UnitImportFormat format, InputStream in) {
+        log.info("Importing units: ownerId={}, format={}", ownerId, format);
+        UnitImportResponse response = unitBulkImporter.importUnits(ownerId, format, in);
+        if (response.getImported() > 0) {
+            facetCache.invalidateAll();
+            // a full reload is cheaper than one copy-on-write append per imported unit
+            unitCatalog.load();
+        }
+        return response;
+    }
+
+    /**
+     * Keyset pagination: instead of an offset, the query seeks past the {@code (sortKey, id)} of the last row
+     * the client has seen, so every page costs the same index range scan however deep the client scrolls.
+     * Only sort fields backed by a composite {@code (column, id)} index are accepted.
+     */
+    private PaginatedResponse<UnitResponse> searchUnitsByCursor(UnitFilterRequest filter) {
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "costPerDay";
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            log.warn("Sort field {} is not supported in cursor mode", sortBy);
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + KEYSET_SORT_FIELDS + " only.");
+        }
+        boolean descending = "desc".equalsIgnoreCase(filter.getSortDirection());
+        String direction = descending ? "desc" : "asc";
+        int size = filter.getSize() > 0 ? filter.getSize() : 10;
+
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Unit> query = cb.createQuery(Unit.class);
+        CriteriaQuery<UnitResponse> query = cb.createQuery(UnitResponse.class);
         Root<Unit> root = query.from(Unit.class);
+        query.select(projection(cb, root));
+        List<Predicate> predicates = new ArrayList<>(Arrays.asList(buildPredicates(cb, query, root, filter)));
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            UnitSearchCursor cursor = UnitSearchCursor.decode(filter.getCursor());
+            if (!cursor.sortBy().equals(sortBy) || !cursor.sortDirection().equals(direction)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order.");
+            }
+            predicates.add(seekPredicate(cb, root, cursor, descending));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(order(cb, root.get(sortBy), descending), order(cb, root.get("id"), descending));
+
+        List<UnitResponse> results = entityManager
+                .createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        String nextCursor = null;
+        if (results.size() > size) {
+            results = results.subList(0, size);
+            UnitResponse last = results.get(size - 1);
+            nextCursor = new UnitSearchCursor(sortBy, direction, sortValue(last, sortBy), last.getId()).encode();
+        }
+
+        Long total = filter.isIncludeTotal() ? countUnits(cb, filter) : null;
+        log.info("Unit cursor search completed, found {} available units, hasNext={}", results.size(), nextCursor != null);
+        PaginatedResponse<UnitResponse> response = new PaginatedResponse<>(results, total, 0, size);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    private Long countUnits(CriteriaBuilder cb, UnitFilterRequest filter) {
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Unit> countRoot = countQuery.from(Unit.class);
+        countQuery.select(cb.count(countRoot)).where(buildPredicates(cb, countQuery, countRoot, filter));
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<?> path, boolean descending) {
+        return descending ? cb.desc(path) : cb.asc(path);
+    }
+
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Unit> root, UnitSearchCursor cursor, boolean descending) {
+        try {
+            return switch (cursor.sortBy()) {
+                case "costPerDay" -> seek(cb, root, "costPerDay", new BigDecimal(cursor.sortValue()), cursor.id(), descending);
+                case "numberOfRooms" -> seek(cb, root, "numberOfRooms", Short.valueOf(cursor.sortValue()), cursor.id(), descending);
+                case "floor" -> seek(cb, root, "floor", Short.valueOf(cursor.sortValue()), cursor.id(), descending);
+                default -> seek(cb, root, "id", Long.valueOf(cursor.sortValue()), cursor.id(), descending);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
 
+    /**
+     * {@code (key, id) > (value, lastId)} in the sort direction, written out so the planner can use the
+     * composite index.
+     */
+    private <Y extends Comparable<? super Y>> Predicate seek(CriteriaBuilder cb, Root<Unit> root, String field,
+                                                             Y value, Long lastId, boolean descending) {
+        Path<Y> key = root.get(field);
+        Path<Long> id = root.get("id");
+        if (descending) {
+            return cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, lastId)));
+        }
+        return cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, lastId)));
+    }
+
+    private static String sortValue(UnitResponse unit, String sortBy) {
+        return switch (sortBy) {
+            case "costPerDay" -> unit.getCostPerDay().toPlainString();
+            case "numberOfRooms" -> Integer.toString(unit.getNumberOfRooms());
+            case "floor" -> Integer.toString(unit.getFloor());
+            default -> unit.getId().toString();
+        };
+    }
+
+    /**
+     * Selects the response columns straight from {@code units}: no managed entities, no owner join.
+     */
+    private static CompoundSelection<UnitResponse> projection(CriteriaBuilder cb, Root<Unit> root) {
+        return cb.construct(UnitResponse.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("costPerDay"),
+                root.get("type"),
+                root.get("numberOfRooms"),
+                root.get("floor"));
+    }
+
+    /**
+     * Builds the filter predicates for a query rooted at {@link Unit}. When a date range is given,
+     * availability is expressed as a NOT EXISTS over overlapping active bookings, so the database
+     * filters before pagination and the count query sees exactly the same rows as the page query.
+     */
+    /**
+     * Postgres rejects a {@code daterange} whose lower bound is above its upper bound, so an inverted range is
+     * turned away as a bad request before it reaches a query.
+     */
+    private static void requireOrderedRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date.");
+        }
+    }
+
+    private Predicate[] buildPredicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Unit> root, UnitFilterRequest filter) {
         List<Predicate> predicates = new ArrayList<>();
 
         if (filter.getType() != null) {
@@ -79,67 +484,31 @@ public class UnitServiceImpl implements UnitService {
             predicates.add(cb.equal(root.get("floor"), filter.getFloor()));
         }
 
-        query.where(predicates.toArray(new Predicate[0]));
-
-        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "costPerDay";
-        String sortDirection = filter.getSortDirection() != null ? filter.getSortDirection() : "asc";
-        Path<?> sortField = root.get(sortBy);
-        query.orderBy(sortDirection.equalsIgnoreCase("desc") ? cb.desc(sortField) : cb.asc(sortField));
-
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Unit> countRoot = countQuery.from(Unit.class);
-        countQuery.select(cb.count(countRoot)).where(predicates.toArray(new Predicate[0]));
-        Long total = entityManager.createQuery(countQuery).getSingleResult();
-
-        int page = filter.getPage() > 0 ? filter.getPage() : 1;
-        int size = filter.getSize() > 0 ? filter.getSize() : 10;
-        List<Unit> all = entityManager
-                .createQuery(query)
-                .setFirstResult((page - 1) * size)
-                .setMaxResults(size)
-                .getResultList();
-
-        List<UnitResponse> results = new ArrayList<>();
-        for (Unit unit : all) {
-            boolean isAvailable = bookingRepository.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                    unit.getId(),
-                    Arrays.asList(BookingStatus.CONFIRMED, BookingStatus.PAID, BookingStatus.PENDING),
-                    filter.getEndDate(),
-                    filter.getStartDate()
-            ).isEmpty();
-            if (isAvailable) {
-                results.add(UnitResponse.from(unit));
-            }
+        if (filter.getStartDate() != null && filter.getEndDate() != null) {
+            requireOrderedRange(filter.getStartDate(), filter.getEndDate());
+            // period && daterange(...) on the exclusion constraint's GiST index, which JPQL cannot express
+            predicates.add(cb.isTrue(cb.function(BookingSqlFunctions.UNIT_FREE_BETWEEN, Boolean.class,
+                    root.get("id"), cb.literal(filter.getStartDate()), cb.literal(filter.getEndDate()))));
         }
-        log.info("Unit search completed, found {} available units", results.size());
-        return new PaginatedResponse<>(results, total, page, size);
+
+        return predicates.toArray(new Predicate[0]);
     }
 
     @Override
     public long getAvailableUnitCount(LocalDate startDate, LocalDate endDate) {
         log.info("Getting available unit count for dates: {} - {}", startDate, endDate);
-        Long cached = cacheService.getCachedAvailableCount(startDate, endDate);
-        if (cached != null) {
-            log.info("Cache hit for available unit count: {}", cached);
-            return cached;
+        requireOrderedRange(startDate, endDate);
+        UnitAvailabilityCacheService.Lookup cached = cacheService.lookupAvailableCount(startDate, endDate);
+        if (cached.isHit()) {
+            log.info("Cache hit for available unit count: {}", cached.count());
+            return cached.count();
         }
         log.info("Cache miss for available unit count, calculating...");
-        List<Unit> allUnits = unitRepository.findAll();
-        long count = 0;
-
-        for (Unit unit : allUnits) {
-            boolean isAvailable = bookingRepository
-                    .findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                            unit.getId(),
-                            List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.PAID),
-                            endDate,
-                            startDate
-                    ).isEmpty();
-
-            if (isAvailable) count++;
-        }
-
-        cacheService.putAvailableCount(startDate, endDate, count);
+        // the count is cached for every node, so a node-local index may only answer when it sees every write
+        long count = availabilityIndex.isAuthoritative()
+                ? availabilityIndex.countAvailable(startDate, endDate)
+                : unitRepository.countAvailable(startDate, endDate);
+        cacheService.putAvailableCount(cached, count);
         log.info("Cached available unit count: {}", count);
         return count;
     }
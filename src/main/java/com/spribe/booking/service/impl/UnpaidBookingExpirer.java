@@ -0,0 +1,197 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Expires PENDING bookings whose payment window has passed, set-based: each chunk is one statement that picks up
+ * to {@code booking.expiry.chunk-size} of the oldest due bookings from the partial
+ * {@code idx_bookings_pending_created_at} index, marks them EXPIRED, fails their pending payments and returns
+ * their periods. A run costs as much as there are bookings to expire, not as much as the table holds.
+ * <p>
+ * Every chunk commits on its own, so row locks are short and a failure keeps what was already expired. Bookings
+ * locked by a concurrent payment are skipped and left to the next run. Availability caches are invalidated once
+ * per chunk for the merged date ranges of its bookings instead of once per booking.
+ * <p>
+ * {@link BookingExpiryWheel} expires bookings by id at their deadline; the age-based run is its safety net. When
+ * that run executes under a cluster job's lease, every chunk is fenced by it, see {@link ClusterJob#fence}.
+ */
+@Slf4j
+@Component
+public class UnpaidBookingExpirer {
+
+    /**
+     * Expires the PENDING bookings picked by the {@code due} subquery and fails their pending payments in one
+     * statement, returning the expired periods. Bumps the row versions, so a payment or cancellation that read
+     * the booking before it expired fails its version check and retries.
+     */
+    private static final String EXPIRE = """
+            WITH expired AS (
+                UPDATE bookings b SET status = 'EXPIRED', version = b.version + 1
+                FROM (%s) due
+                WHERE b.id = due.id AND b.status = 'PENDING'
+                RETURNING b.id, b.unit_id, b.start_date, b.end_date
+            ), failed AS (
+                UPDATE payments p SET status = 'FAILED', payment_time = CURRENT_TIMESTAMP, version = p.version + 1
+                FROM expired e
+                WHERE p.booking_id = e.id AND p.status = 'PENDING'
+            )
+            SELECT id, unit_id, start_date, end_date FROM expired
+            """;
+    private static final String EXPIRE_OLDEST = EXPIRE.formatted("""
+            SELECT id FROM bookings
+            WHERE status = 'PENDING' AND created_at < ?
+            ORDER BY created_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""");
+    private static final String EXPIRE_BY_ID = EXPIRE.formatted("""
+            SELECT id FROM bookings
+            WHERE id = ANY(?) AND status = 'PENDING' AND created_at <= ?
+            FOR UPDATE SKIP LOCKED""");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnitAvailabilityCacheService cacheService;
+    private final AvailabilityIndex availabilityIndex;
+    private final UnitCalendarCacheService calendarCache;
+    private final Duration paymentWindow;
+    private final int chunkSize;
+
+    public UnpaidBookingExpirer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                UnitAvailabilityCacheService cacheService, AvailabilityIndex availabilityIndex,
+                                UnitCalendarCacheService calendarCache,
+                                @Value("${booking.expiry.payment-window:15m}") Duration paymentWindow,
+                                @Value("${booking.expiry.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheService = cacheService;
+        this.availabilityIndex = availabilityIndex;
+        this.calendarCache = calendarCache;
+        this.paymentWindow = paymentWindow;
+        this.chunkSize = chunkSize;
+    }
+
+    record ExpiredBooking(Long id, Long unitId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record DateRange(LocalDate start, LocalDate end) {
+    }
+
+    /**
+     * Expires every booking created more than the payment window ago that is still PENDING. Must not run inside
+     * a transaction, so that each chunk commits on its own.
+     *
+     * @return the number of bookings expired
+     */
+    public int expireUnpaid() {
+        return expireUnpaid(() -> true);
+    }
+
+    /**
+     * Like {@link #expireUnpaid()}, for a run under the lease of the given cluster job: a chunk whose transaction
+     * finds the lease gone writes nothing and ends the run.
+     *
+     * @return the number of bookings expired
+     */
+    public int expireUnpaid(ClusterJob job, ClusterJob.JobLease lease) {
+        return expireUnpaid(() -> job.fence(lease));
+    }
+
+    private int expireUnpaid(BooleanSupplier fence) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(paymentWindow);
+        int expired = 0;
+        List<ExpiredBooking> chunk;
+        do {
+            chunk = expireChunk(fence, EXPIRE_OLDEST, cutoff, chunkSize);
+            expired += chunk.size();
+        } while (chunk.size() == chunkSize);
+        log.info("Expired {} unpaid bookings created before {}", expired, cutoff);
+        return expired;
+    }
+
+    /**
+     * Expires the given bookings if they are still PENDING and their payment window has passed; others are
+     * skipped. Must not run inside a transaction.
+     *
+     * @return the number of bookings expired
+     */
+    public int expire(Collection<Long> bookingIds) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(paymentWindow);
+        List<Long> ids = List.copyOf(bookingIds);
+        int expired = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            Long[] chunkIds = ids.subList(from, Math.min(from + chunkSize, ids.size())).toArray(Long[]::new);
+            expired += expireChunk(() -> true, EXPIRE_BY_ID, chunkIds, cutoff).size();
+        }
+        log.info("Expired {} of {} due bookings", expired, ids.size());
+        return expired;
+    }
+
+    private List<ExpiredBooking> expireChunk(BooleanSupplier fence, String sql, Object... args) {
+        List<ExpiredBooking> chunk = transactionTemplate.execute(status ->
+                fence.getAsBoolean() ? expireInTransaction(sql, args) : List.<ExpiredBooking>of());
+        // after the chunk committed, so no reader can cache the rows it just released
+        for (DateRange range : merge(chunk)) {
+            cacheService.invalidate(range.start(), range.end());
+        }
+        return chunk;
+    }
+
+    private List<ExpiredBooking> expireInTransaction(String sql, Object... args) {
+        List<ExpiredBooking> chunk = jdbcTemplate.query(sql, (rs, rowNum) -> new ExpiredBooking(
+                rs.getLong("id"), rs.getLong("unit_id"),
+                rs.getObject("start_date", LocalDate.class), rs.getObject("end_date", LocalDate.class)),
+                args);
+        Map<Long, List<ExpiredBooking>> byUnit = chunk.stream()
+                .collect(Collectors.groupingBy(ExpiredBooking::unitId));
+        byUnit.forEach((unitId, bookings) -> {
+            bookings.forEach(booking -> availabilityIndex.removeBooking(booking.id(), unitId));
+            merge(bookings).forEach(range -> calendarCache.evict(unitId, range.start(), range.end()));
+        });
+        log.info("Expired chunk of {} bookings on {} units", chunk.size(), byUnit.size());
+        return chunk;
+    }
+
+    /**
+     * Collapses overlapping and adjacent booking periods into the fewest ranges covering the same days.
+     */
+    private static List<DateRange> merge(List<ExpiredBooking> bookings) {
+        List<ExpiredBooking> sorted = bookings.stream()
+                .sorted(Comparator.comparing(ExpiredBooking::startDate))
+                .toList();
+        List<DateRange> merged = new ArrayList<>();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (ExpiredBooking booking : sorted) {
+            if (start != null && !booking.startDate().isAfter(end.plusDays(1))) {
+                end = booking.endDate().isAfter(end) ? booking.endDate() : end;
+                continue;
+            }
+            if (start != null) {
+                merged.add(new DateRange(start, end));
+            }
+            start = booking.startDate();
+            end = booking.endDate();
+        }
+        if (start != null) {
+            merged.add(new DateRange(start, end));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX idx_units_cost_id ON units(cost_per_day, id);
+CREATE INDEX idx_units_rooms_id ON units(number_of_rooms, id);
+CREATE INDEX idx_units_floor_id ON units(floor, id);
@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Both ends are inclusive, matching the start_date <= ? AND end_date >= ? overlap checks.
+ALTER TABLE bookings
+    ADD COLUMN period DATERANGE GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED;
+
+-- Backed by a GiST index on (unit_id, period) covering active bookings only; range lookups use the same index.
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_active_overlap
+        EXCLUDE USING gist (unit_id WITH =, period WITH &&)
+        WHERE (status IN ('PENDING', 'CONFIRMED', 'PAID'));
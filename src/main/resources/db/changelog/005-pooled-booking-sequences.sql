@@ -0,0 +1,4 @@
+-- Booking and Payment ids come from pooled sequence generators (allocationSize = 50): each nextval reserves a
+-- block of 50 ids, which lets Hibernate batch inserts instead of fetching every id with its own INSERT.
+ALTER SEQUENCE bookings_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
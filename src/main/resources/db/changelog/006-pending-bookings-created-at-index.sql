@@ -0,0 +1,3 @@
+-- Unpaid bookings are expired by age. The partial index only holds PENDING rows, so finding the ones past their
+-- payment window costs as much as there are open bookings, however long the booking history grows.
+CREATE INDEX idx_bookings_pending_created_at ON bookings(created_at) WHERE status = 'PENDING';
@@ -0,0 +1,9 @@
+-- One row per cluster-wide scheduled job: the node holding its lease and until when. The fencing token grows by
+-- one every time the lease changes hands, so work stamped with an older token can be told apart.
+CREATE TABLE job_leases (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    leased_until TIMESTAMP NOT NULL,
+    acquired_at TIMESTAMP NOT NULL
+);
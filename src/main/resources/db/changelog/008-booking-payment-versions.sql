@@ -0,0 +1,4 @@
+-- Row versions for optimistic locking. JPA updates of bookings and payments check and bump them, and set-based
+-- updates bump them too, so a write based on a stale read fails instead of overwriting a concurrent transition.
+ALTER TABLE bookings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE payments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
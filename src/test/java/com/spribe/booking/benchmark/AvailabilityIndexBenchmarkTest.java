@@ -0,0 +1,93 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.service.impl.AvailabilityIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Times the bitmap-backed available-unit count over a 100k unit catalog, independent of any cache.
+ */
+@Tag("benchmark")
+class AvailabilityIndexBenchmarkTest {
+
+    private static final int UNIT_COUNT = 100_000;
+    private static final int BOOKINGS_PER_UNIT = 4;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void countAvailable_fourteenNightsOverHundredThousandUnits() {
+        UnitRepository unitRepository = mock(UnitRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(unitRepository.findAllIds()).thenReturn(LongStream.rangeClosed(1, UNIT_COUNT).boxed().toList());
+
+        LocalDate base = LocalDate.of(2025, 6, 1);
+        Random random = new Random(42);
+        List<BookingPeriod> periods = new ArrayList<>();
+        long bookingId = 1;
+        for (long unitId = 1; unitId <= UNIT_COUNT; unitId++) {
+            for (int i = 0; i < BOOKINGS_PER_UNIT; i++) {
+                LocalDate start = base.plusDays(i * 30L + random.nextInt(20));
+                periods.add(period(bookingId++, unitId, start, start.plusDays(1 + random.nextInt(7))));
+            }
+        }
+        when(bookingRepository.findPeriodsByStatusIn(any())).thenReturn(periods);
+
+        long buildStarted = System.nanoTime();
+        AvailabilityIndex index = new AvailabilityIndex(unitRepository, bookingRepository, true);
+        index.rebuild();
+        System.out.printf("Index built from %d bookings in %.1f ms%n", periods.size(), (System.nanoTime() - buildStarted) / 1e6);
+
+        LocalDate start = base.plusDays(40);
+        LocalDate end = start.plusDays(14);
+        for (int i = 0; i < 20; i++) {
+            index.countAvailable(start, end);
+        }
+        long started = System.nanoTime();
+        long count = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            count = index.countAvailable(start, end);
+        }
+        double millis = (System.nanoTime() - started) / 1e6 / ITERATIONS;
+
+        System.out.printf("Available units for 14 nights over %d units: %d, %.3f ms/count%n", UNIT_COUNT, count, millis);
+        assertTrue(millis < 50);
+    }
+
+    private static BookingPeriod period(Long id, Long unitId, LocalDate start, LocalDate end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUnitId() {
+                return unitId;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return end;
+            }
+        };
+    }
+}
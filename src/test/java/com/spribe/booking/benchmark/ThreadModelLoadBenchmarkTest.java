@@ -0,0 +1,142 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.BookingSystemApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same mixed search and booking load against the application on platform threads and then on virtual
+ * threads, with the same 20-connection pool, and prints throughput and p99 latency for both. Tomcat gets 50
+ * platform threads so the platform run is bounded by its thread pool, as it would be in production.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ThreadModelLoadBenchmarkTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int CONCURRENT_CLIENTS = 400;
+    private static final int SEEDED_UNITS = 10;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false, LocalDate.of(2030, 1, 1));
+        Result virtual = run(true, LocalDate.of(2040, 1, 1));
+
+        System.out.printf("%-9s %8.0f req/s  p99 %5d ms  errors %d%n", "platform", platform.throughput(), platform.p99Millis(), platform.serverErrors());
+        System.out.printf("%-9s %8.0f req/s  p99 %5d ms  errors %d%n", "virtual", virtual.throughput(), virtual.p99Millis(), virtual.serverErrors());
+        assertEquals(0, platform.serverErrors());
+        assertEquals(0, virtual.serverErrors());
+    }
+
+    private record Result(double throughput, long p99Millis, int serverErrors) {
+    }
+
+    private Result run(boolean virtualThreads, LocalDate firstDay) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/api/v1";
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+            AtomicInteger serverErrors = new AtomicInteger();
+            Semaphore clients = new Semaphore(CONCURRENT_CLIENTS);
+
+            long started = System.nanoTime();
+            try (ExecutorService load = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    HttpRequest request = i % 2 == 0 ? search(baseUrl, i) : booking(baseUrl, i, firstDay);
+                    clients.acquire();
+                    load.execute(() -> {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                serverErrors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            serverErrors.incrementAndGet();
+                        } finally {
+                            latencies.add((System.nanoTime() - sent) / 1_000_000);
+                            clients.release();
+                        }
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+            return new Result(REQUESTS / seconds, p99, serverErrors.get());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(BookingSystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "spring.data.redis.host=" + REDIS.getHost(),
+                        "spring.data.redis.port=" + REDIS.getMappedPort(6379),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.spribe.booking=WARN")
+                .run();
+    }
+
+    private static HttpRequest search(String baseUrl, int i) {
+        String body = "{\"minCost\":" + (50 + i % 100) + ",\"page\":1,\"size\":10}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/units/search"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Every booking gets its own two-day window on one of the seeded units, so all of them can succeed.
+     */
+    private static HttpRequest booking(String baseUrl, int i, LocalDate firstDay) {
+        LocalDate start = firstDay.plusDays(3L * (i / SEEDED_UNITS));
+        String body = "{\"userId\":1,\"unitId\":" + (i % SEEDED_UNITS + 1)
+                + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusDays(1) + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.dto.UnitAvailabilityRequest;
+import com.spribe.booking.enums.BookingStatus;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.service.UnitService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the bulk availability check with asking about each unit separately, for a badge-sized batch of units.
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class UnitAvailabilityBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int UNIT_COUNT = 200;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+    private static final LocalDate START = LocalDate.of(2025, 9, 1);
+    private static final LocalDate END = LocalDate.of(2025, 9, 10);
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Long> unitIds;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> units = new ArrayList<>();
+        for (int i = 0; i < UNIT_COUNT; i++) {
+            units.add(new Object[]{"Availability bench unit " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, ?, 'Benchmark unit', 100, 'FLAT', 2, 1)", units);
+        unitIds = jdbcTemplate.queryForList("SELECT id FROM units ORDER BY id DESC LIMIT ?", Long.class, UNIT_COUNT);
+
+        // A third of the batch is booked inside the checked range.
+        for (int i = 0; i < unitIds.size(); i += 3) {
+            jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) VALUES (?, 1, ?, ?, 'PAID')",
+                    unitIds.get(i), START.plusDays(2), START.plusDays(4));
+        }
+    }
+
+    @Test
+    void checkAvailability_bulkVersusSingleChecks() {
+        UnitAvailabilityRequest request = new UnitAvailabilityRequest();
+        request.setUnitIds(unitIds);
+        request.setStartDate(START);
+        request.setEndDate(END);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            unitService.checkAvailability(request);
+            checkOneByOne();
+        }
+
+        statistics.clear();
+        long bulkNanos = 0;
+        Map<Long, Boolean> bulk = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long started = System.nanoTime();
+            bulk = unitService.checkAvailability(request);
+            bulkNanos += System.nanoTime() - started;
+        }
+        long bulkStatements = statistics.getPrepareStatementCount() / MEASURED_ITERATIONS;
+
+        statistics.clear();
+        long singleNanos = 0;
+        Map<Long, Boolean> single = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long started = System.nanoTime();
+            single = checkOneByOne();
+            singleNanos += System.nanoTime() - started;
+        }
+        long singleStatements = statistics.getPrepareStatementCount() / MEASURED_ITERATIONS;
+
+        System.out.printf("Availability of %d units%n", UNIT_COUNT);
+        System.out.printf("  bulk:          %d statements/request, %.2f ms/request%n",
+                bulkStatements, bulkNanos / 1e6 / MEASURED_ITERATIONS);
+        System.out.printf("  single checks: %d statements/request, %.2f ms/request%n",
+                singleStatements, singleNanos / 1e6 / MEASURED_ITERATIONS);
+
+        assertEquals(1, bulkStatements);
+        assertEquals(single, bulk);
+        assertTrue(bulkNanos < singleNanos);
+    }
+
+    /**
+     * What the frontend did before: one overlap query per unit.
+     */
+    private Map<Long, Boolean> checkOneByOne() {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Boolean> result = new HashMap<>();
+            for (Long unitId : unitIds) {
+                result.put(unitId, bookingRepository
+                        .findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                                unitId, BookingStatus.ACTIVE_STATUSES, END, START)
+                        .isEmpty());
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.dto.UnitImportResponse;
+import com.spribe.booking.enums.UnitImportFormat;
+import com.spribe.booking.service.UnitService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Streams 100k generated NDJSON units through the bulk import; the upload is produced line by line, so neither
+ * side ever holds the whole body.
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class UnitBulkImportBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int UNIT_COUNT = 100_000;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Test
+    void importUnits_hundredThousandRows() {
+        long started = System.nanoTime();
+        UnitImportResponse response = unitService.importUnits(1L, UnitImportFormat.NDJSON, generated(UNIT_COUNT));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Imported %d units in %.2f s: %.0f units/s%n",
+                response.getImported(), seconds, response.getImported() / seconds);
+        assertEquals(UNIT_COUNT, response.getImported());
+        assertEquals(0, response.getRejected());
+    }
+
+    private static InputStream generated(int count) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < count;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                int i = next++;
+                String line = "{\"title\":\"Imported unit " + i + "\",\"description\":\"Bulk benchmark\",\"type\":\"FLAT\","
+                        + "\"numberOfRooms\":" + (i % 5 + 1) + ",\"costPerDay\":" + (50 + i % 300) + ",\"floor\":" + (i % 15) + "}\n";
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
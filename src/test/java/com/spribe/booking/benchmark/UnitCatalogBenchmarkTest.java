@@ -0,0 +1,101 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.enums.UnitType;
+import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.service.impl.AvailabilityIndex;
+import com.spribe.booking.service.impl.UnitCatalog;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Times searches against the columnar catalog over one million units, without any database.
+ */
+@Tag("benchmark")
+class UnitCatalogBenchmarkTest {
+
+    private static final int UNIT_COUNT = 1_000_000;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1_000;
+
+    private static UnitCatalog catalog;
+
+    @BeforeAll
+    static void load() {
+        Random random = new Random(42);
+        UnitType[] types = UnitType.values();
+        UnitRepository unitRepository = mock(UnitRepository.class);
+        when(unitRepository.streamCatalog()).thenReturn(IntStream.rangeClosed(1, UNIT_COUNT).mapToObj(id -> new UnitResponse(
+                (long) id, "Unit " + id, "Benchmark unit", BigDecimal.valueOf(5_000 + random.nextInt(50_000), 2),
+                types[random.nextInt(types.length)], (short) (1 + random.nextInt(5)), (short) (1 + random.nextInt(20)))));
+
+        long started = System.nanoTime();
+        catalog = new UnitCatalog(unitRepository, mock(AvailabilityIndex.class), true);
+        catalog.load();
+        System.out.printf("Catalog of %d units loaded in %.1f ms%n", UNIT_COUNT, (System.nanoTime() - started) / 1e6);
+    }
+
+    @Test
+    void search_costRangeSortedByCostWithTotal() {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setMinCost(new BigDecimal("100"));
+        filter.setMaxCost(new BigDecimal("110"));
+        filter.setPage(3);
+        filter.setSize(20);
+
+        double millis = time("cost 100-110, sorted by cost, with total", filter);
+        assertTrue(millis < 1);
+    }
+
+    @Test
+    void search_typeAndRoomsFirstPageWithoutTotal() {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setType(UnitType.FLAT);
+        filter.setNumberOfRooms(2);
+        filter.setSortDirection("desc");
+        filter.setSize(20);
+        filter.setIncludeTotal(false);
+
+        double millis = time("FLAT with 2 rooms, first page, no total", filter);
+        assertTrue(millis < 1);
+    }
+
+    @Test
+    void search_fullScanWithTotal() {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setType(UnitType.HOME);
+        filter.setFloor(7);
+        filter.setSortBy("numberOfRooms");
+        filter.setSize(20);
+
+        time("HOME on floor 7, sorted by rooms, with total (scans every row)", filter);
+    }
+
+    private static double time(String label, UnitFilterRequest filter) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            catalog.search(filter);
+        }
+        PaginatedResponse<UnitResponse> response = null;
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            response = catalog.search(filter);
+        }
+        double millis = (System.nanoTime() - started) / 1e6 / MEASURED_ITERATIONS;
+        System.out.printf("%s: %d rows, total=%s, %.3f ms/search%n",
+                label, response.getContent().size(), response.getTotalElements(), millis);
+        assertEquals(filter.getSize(), response.getContent().size());
+        return millis;
+    }
+}
@@ -0,0 +1,143 @@
+package com.spribe.booking.benchmark;
+
+import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.entity.Unit;
+import com.spribe.booking.enums.BookingStatus;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.service.UnitService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the set-based availability search with the former per-unit probing loop on a catalog of 10k+ units.
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class UnitSearchBenchmarkTest extends AbstractPostgresIntegrationTest {
+
+    private static final int UNIT_COUNT = 10_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+    private static final LocalDate START = LocalDate.of(2025, 8, 1);
+    private static final LocalDate END = LocalDate.of(2025, 8, 10);
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM units", Long.class);
+        if (existing != null && existing >= UNIT_COUNT) {
+            return;
+        }
+        List<Object[]> units = new ArrayList<>();
+        for (int i = 0; i < UNIT_COUNT; i++) {
+            units.add(new Object[]{"Bench unit " + i, 50 + (i % 300), (i % 5) + 1, (i % 15) + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, ?, 'Benchmark unit', ?, 'FLAT', ?, ?)", units);
+
+        // Every other unit is booked inside the searched range, so half of the catalog must be filtered out.
+        jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) "
+                + "SELECT id, 1, ?, ?, 'PAID' FROM units WHERE id % 2 = 0", START.plusDays(2), START.plusDays(4));
+    }
+
+    @Test
+    void searchUnits_setBasedVersusPerUnitProbing() {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setStartDate(START);
+        filter.setEndDate(END);
+        filter.setPage(50);
+        filter.setSize(20);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            unitService.searchUnits(filter);
+            probePerUnit(filter);
+        }
+
+        statistics.clear();
+        long setBasedNanos = 0;
+        PaginatedResponse<UnitResponse> response = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long started = System.nanoTime();
+            response = unitService.searchUnits(filter);
+            setBasedNanos += System.nanoTime() - started;
+        }
+        long setBasedStatements = statistics.getPrepareStatementCount() / MEASURED_ITERATIONS;
+
+        statistics.clear();
+        long probingNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long started = System.nanoTime();
+            probePerUnit(filter);
+            probingNanos += System.nanoTime() - started;
+        }
+        long probingStatements = statistics.getPrepareStatementCount() / MEASURED_ITERATIONS;
+
+        Long expectedTotal = jdbcTemplate.queryForObject("SELECT count(*) FROM units u WHERE NOT EXISTS ("
+                + "SELECT 1 FROM bookings b WHERE b.unit_id = u.id AND b.status IN ('PENDING', 'CONFIRMED', 'PAID') "
+                + "AND b.start_date <= ? AND b.end_date >= ?)", Long.class, END, START);
+
+        System.out.printf("Unit search over %d units, page %d x %d%n", UNIT_COUNT, filter.getPage(), filter.getSize());
+        System.out.printf("  set-based:         %d statements/request, %.2f ms/request%n",
+                setBasedStatements, setBasedNanos / 1e6 / MEASURED_ITERATIONS);
+        System.out.printf("  per-unit probing:  %d statements/request, %.2f ms/request%n",
+                probingStatements, probingNanos / 1e6 / MEASURED_ITERATIONS);
+
+        assertEquals(2, setBasedStatements);
+        assertEquals(filter.getSize(), response.getContent().size());
+        assertEquals(expectedTotal, response.getTotalElements());
+    }
+
+    /**
+     * The pre-change algorithm: load one page, then ask the bookings table about every unit on it.
+     */
+    private void probePerUnit(UnitFilterRequest filter) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Unit> page = entityManager
+                    .createQuery("select u from Unit u order by u.costPerDay", Unit.class)
+                    .setFirstResult((filter.getPage() - 1) * filter.getSize())
+                    .setMaxResults(filter.getSize())
+                    .getResultList();
+            for (Unit unit : page) {
+                bookingRepository.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                        unit.getId(), BookingStatus.ACTIVE_STATUSES, filter.getEndDate(), filter.getStartDate());
+            }
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.spribe.booking.repository;
+
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.repository.projection.UnitOverlapCount;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingPeriodIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 3, 10);
+    private static final LocalDate END = LocalDate.of(2026, 3, 14);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long unitId;
+
+    @BeforeEach
+    void createUnit() {
+        unitId = jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Range unit', 'Exclusion test', 100, 'FLAT', 1, 1) RETURNING id", Long.class);
+        insertBooking(START, END, "PAID");
+    }
+
+    @Test
+    void exclusionConstraint_shouldRejectOverlappingActiveBookingIncludingSharedBoundaryDay() {
+        assertThrows(DataIntegrityViolationException.class, () -> insertBooking(END, END.plusDays(3), "PENDING"));
+        assertThrows(DataIntegrityViolationException.class, () -> insertBooking(START.plusDays(1), START.plusDays(2), "CONFIRMED"));
+    }
+
+    @Test
+    void exclusionConstraint_shouldIgnoreInactiveBookings() {
+        insertBooking(START.plusDays(1), START.plusDays(2), "CANCELLED");
+        insertBooking(START, END, "EXPIRED");
+
+        assertDoesNotThrow(() -> insertBooking(END.plusDays(1), END.plusDays(2), "PENDING"));
+    }
+
+    @Test
+    void existsActiveOverlap_shouldMatchInclusiveOverlapSemantics() {
+        assertTrue(bookingRepository.existsActiveOverlap(unitId, START.minusDays(5), START));
+        assertTrue(bookingRepository.existsActiveOverlap(unitId, END, END.plusDays(5)));
+        assertFalse(bookingRepository.existsActiveOverlap(unitId, START.minusDays(5), START.minusDays(1)));
+        assertFalse(bookingRepository.existsActiveOverlap(unitId, END.plusDays(1), END.plusDays(5)));
+    }
+
+    @Test
+    void findPeriodsOverlapping_shouldReturnActiveBookingsTouchingTheRange() {
+        insertBooking(END.plusDays(1), END.plusDays(2), "CANCELLED");
+
+        List<BookingPeriod> periods = bookingRepository.findPeriodsOverlapping(unitId, END, END.plusDays(2));
+
+        assertEquals(1, periods.size());
+        assertEquals(unitId, periods.get(0).getUnitId());
+        assertEquals(START, periods.get(0).getStartDate());
+        assertTrue(bookingRepository.findPeriodsOverlapping(unitId, END.plusDays(1), END.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void findPeriodsOverlappingUnits_shouldReturnActiveBookingsOfEveryRequestedUnit() {
+        Long otherUnitId = jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Other unit', 'Exclusion test', 100, 'FLAT', 1, 1) RETURNING id", Long.class);
+        jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) VALUES (?, 1, ?, ?, 'PENDING')",
+                otherUnitId, END, END.plusDays(1));
+        jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) VALUES (?, 1, ?, ?, 'EXPIRED')",
+                otherUnitId, START, START);
+
+        List<BookingPeriod> periods = bookingRepository.findPeriodsOverlappingUnits(List.of(unitId, otherUnitId), START, END);
+
+        assertEquals(2, periods.size());
+        assertEquals(List.of(unitId, otherUnitId), periods.stream().map(BookingPeriod::getUnitId).sorted().toList());
+        assertTrue(bookingRepository.findPeriodsOverlappingUnits(List.of(unitId, otherUnitId),
+                END.plusDays(2), END.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void countOverlappingBookings_shouldCountActiveOverlapsPerExistingUnit() {
+        insertBooking(END.plusDays(1), END.plusDays(2), "CANCELLED");
+
+        List<UnitOverlapCount> counts = unitRepository.countOverlappingBookings(List.of(unitId, -1L), END, END.plusDays(5));
+
+        assertEquals(1, counts.size());
+        assertEquals(unitId, counts.get(0).getUnitId());
+        assertEquals(1L, counts.get(0).getOverlapping());
+        assertEquals(0L, unitRepository.countOverlappingBookings(List.of(unitId), END.plusDays(1), END.plusDays(5))
+                .get(0).getOverlapping());
+    }
+
+    @Test
+    void findBookedPeriods_shouldReturnActiveOverlapsOrOneEmptyRow() {
+        insertBooking(END.plusDays(3), END.plusDays(4), "PENDING");
+        insertBooking(END.plusDays(1), END.plusDays(2), "EXPIRED");
+
+        List<BookingPeriod> periods = unitRepository.findBookedPeriods(unitId, START, END.plusDays(3));
+
+        assertEquals(List.of(START, END.plusDays(3)), periods.stream().map(BookingPeriod::getStartDate).toList());
+        assertEquals(END, periods.get(0).getEndDate());
+        List<BookingPeriod> none = unitRepository.findBookedPeriods(unitId, END.plusDays(10), END.plusDays(12));
+        assertEquals(1, none.size());
+        assertNull(none.get(0).getId());
+        assertTrue(unitRepository.findBookedPeriods(-1L, START, END).isEmpty());
+    }
+
+    @Test
+    void existsActiveOverlap_shouldUseGistIndex() {
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            List<String> lines = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                // the test table is tiny; make the planner show which index it would pick
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet rs = statement.executeQuery("EXPLAIN SELECT 1 FROM bookings b WHERE b.unit_id = " + unitId
+                        + " AND b.status IN ('PENDING', 'CONFIRMED', 'PAID')"
+                        + " AND b.period && daterange('" + START + "', '" + END + "', '[]')")) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+            return lines;
+        });
+
+        assertTrue(plan.stream().anyMatch(line -> line.contains("bookings_no_active_overlap")), String.join("\n", plan));
+    }
+
+    private void insertBooking(LocalDate start, LocalDate end, String status) {
+        jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) VALUES (?, 1, ?, ?, ?)",
+                unitId, start, end, status);
+    }
+}
@@ -0,0 +1,136 @@
+package com.spribe.booking.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingRequestStatus;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.enums.BookingRequestState;
+import com.spribe.booking.service.BookingService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class AsyncBookingQueueTest {
+
+    private BookingService bookingService;
+    private StringRedisTemplate stringRedisTemplate;
+    private AsyncBookingQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bookingService = mock(BookingService.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        queue = queue(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void submit_shouldBookInBackgroundAndReportOutcome() throws Exception {
+        when(bookingService.bookUnit(any())).thenReturn(booking(7L));
+
+        BookingRequestStatus queued = queue.submit(request("2025-08-01", "2025-08-03"));
+        BookingRequestStatus done = queue.await(queued.getId(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(BookingRequestState.QUEUED, queued.getState());
+        assertEquals(BookingRequestState.SUCCEEDED, done.getState());
+        assertEquals(7L, done.getBookingId());
+        verify(stringRedisTemplate).convertAndSend(AsyncBookingQueue.COMPLETION_CHANNEL, queued.getId());
+    }
+
+    @Test
+    void submit_shouldRetryFailedBatchOneByOneSoOnlyLosersFail() throws Exception {
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingService.bookUnit(any()))
+                .thenAnswer(invocation -> {
+                    firstRunning.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return booking(1L);
+                })
+                .thenReturn(booking(2L))
+                .thenThrow(new IllegalStateException("Unit is not available for the selected dates."));
+        when(bookingService.bookUnits(anyList()))
+                .thenThrow(new IllegalStateException("Unit 1 is not available for the selected dates."));
+
+        queue.submit(request("2025-07-01", "2025-07-02"));
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+        BookingRequestStatus winner = queue.submit(request("2025-08-01", "2025-08-03"));
+        BookingRequestStatus loser = queue.submit(request("2025-08-02", "2025-08-04"));
+        release.countDown();
+
+        BookingRequestStatus won = queue.await(winner.getId(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+        BookingRequestStatus lost = queue.await(loser.getId(), Duration.ofSeconds(5)).get(10, TimeUnit.SECONDS);
+        assertEquals(BookingRequestState.SUCCEEDED, won.getState());
+        assertEquals(2L, won.getBookingId());
+        assertEquals(BookingRequestState.FAILED, lost.getState());
+        assertEquals(409, lost.getErrorStatus());
+        verify(bookingService).bookUnits(argThat(requests -> requests.size() == 2));
+    }
+
+    @Test
+    void submit_shouldRejectWhenQueueIsFull() throws Exception {
+        queue.shutdown();
+        queue = queue(1);
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingService.bookUnit(any())).thenAnswer(invocation -> {
+            firstRunning.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return booking(1L);
+        });
+
+        queue.submit(request("2025-08-01", "2025-08-02"));
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+        queue.submit(request("2025-08-05", "2025-08-06"));
+
+        assertThrows(IllegalStateException.class, () -> queue.submit(request("2025-08-10", "2025-08-11")));
+        release.countDown();
+        // the rejected request's QUEUED status is removed again, locally and in Redis
+        verify(stringRedisTemplate).delete(startsWith("booking_request:"));
+    }
+
+    @Test
+    void await_shouldFailForUnknownRequest() {
+        assertThrows(EntityNotFoundException.class, () -> queue.await("missing", Duration.ZERO));
+    }
+
+    private AsyncBookingQueue queue(int maxQueued) {
+        return new AsyncBookingQueue(bookingService, stringRedisTemplate, mock(RedisMessageListenerContainer.class),
+                new ObjectMapper().findAndRegisterModules(), 1, 10, maxQueued, Duration.ofHours(1), false);
+    }
+
+    private static BookingCreateRequest request(String start, String end) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(2L);
+        request.setUnitId(1L);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
+    private static Booking booking(Long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        return booking;
+    }
+}
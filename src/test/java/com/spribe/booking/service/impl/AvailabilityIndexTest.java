@@ -0,0 +1,122 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate AUG_1 = LocalDate.of(2025, 8, 1);
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        UnitRepository unitRepository = mock(UnitRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(unitRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(bookingRepository.findPeriodsByStatusIn(any())).thenReturn(List.of(
+                period(10L, 1L, AUG_1.plusDays(2), AUG_1.plusDays(4)),
+                period(11L, 1L, AUG_1.plusDays(10), AUG_1.plusDays(12)),
+                period(12L, 2L, AUG_1, AUG_1.plusDays(1))
+        ));
+        index = new AvailabilityIndex(unitRepository, bookingRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void rebuild_shouldMarkIndexReady() {
+        assertTrue(index.isReady());
+        assertTrue(index.isAuthoritative());
+    }
+
+    @Test
+    void rebuild_shouldSkipTheIndexWhenOtherNodesMayWrite() {
+        UnitRepository unitRepository = mock(UnitRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        AvailabilityIndex clustered = new AvailabilityIndex(unitRepository, bookingRepository, false);
+        clustered.rebuild();
+        clustered.addBooking(20L, 3L, AUG_1, AUG_1.plusDays(2));
+
+        assertFalse(clustered.isReady());
+        assertFalse(clustered.isAuthoritative());
+        assertEquals(0, clustered.countAvailable(AUG_1, AUG_1.plusDays(2)));
+        verifyNoInteractions(unitRepository, bookingRepository);
+    }
+
+    @Test
+    void isAvailable_shouldDetectOverlapIncludingBoundaryDays() {
+        assertFalse(index.isAvailable(1L, AUG_1, AUG_1.plusDays(2)));
+        assertFalse(index.isAvailable(1L, AUG_1.plusDays(4), AUG_1.plusDays(6)));
+        assertFalse(index.isAvailable(1L, AUG_1, AUG_1.plusDays(30)));
+        assertTrue(index.isAvailable(1L, AUG_1.plusDays(5), AUG_1.plusDays(9)));
+        assertTrue(index.isAvailable(3L, AUG_1, AUG_1.plusDays(30)));
+    }
+
+    @Test
+    void countAvailable_shouldScanEveryUnit() {
+        assertEquals(1, index.countAvailable(AUG_1, AUG_1.plusDays(3)));
+        assertEquals(3, index.countAvailable(AUG_1.plusDays(5), AUG_1.plusDays(9)));
+    }
+
+    @Test
+    void addAndRemoveBooking_shouldUpdateOccupancy() {
+        index.addBooking(20L, 3L, AUG_1.plusDays(5), AUG_1.plusDays(7));
+        assertFalse(index.isAvailable(3L, AUG_1.plusDays(6), AUG_1.plusDays(6)));
+
+        index.removeBooking(10L, 1L);
+        assertTrue(index.isAvailable(1L, AUG_1, AUG_1.plusDays(5)));
+        assertFalse(index.isAvailable(1L, AUG_1.plusDays(11), AUG_1.plusDays(11)));
+    }
+
+    @Test
+    void countAvailable_shouldKeepDaysHeldByAnotherBookingOfSameUnit() {
+        index.addBooking(21L, 3L, AUG_1, AUG_1.plusDays(3));
+        index.addBooking(22L, 3L, AUG_1.plusDays(3), AUG_1.plusDays(5));
+        index.removeBooking(21L, 3L);
+
+        assertEquals(1, index.countAvailable(AUG_1, AUG_1.plusDays(2)));
+        assertEquals(1, index.countAvailable(AUG_1.plusDays(3), AUG_1.plusDays(3)));
+    }
+
+    @Test
+    void registerUnit_shouldCountNewUnitAsAvailable() {
+        index.registerUnit(4L);
+        assertEquals(2, index.countAvailable(AUG_1, AUG_1.plusDays(3)));
+    }
+
+    private static BookingPeriod period(Long id, Long unitId, LocalDate start, LocalDate end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUnitId() {
+                return unitId;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingResponse;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.service.BookingService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Paying for and cancelling a booking load what they change in one query, with the ownership check in its
+ * WHERE clause, and nothing else before writing.
+ */
+class BookingAggregateLoadingIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void payForBooking_shouldLoadBookingAndPaymentInOneQuery() {
+        Booking booking = bookingService.bookUnit(request(newUnit()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.payForBooking(booking.getId(), 1L);
+
+        // one select, then one update per row
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals("PAID", status("bookings", "id", booking.getId()));
+        assertEquals("PAID", status("payments", "booking_id", booking.getId()));
+    }
+
+    @Test
+    void cancelBooking_shouldLoadOnlyTheBooking() {
+        Booking booking = bookingService.bookUnit(request(newUnit()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.cancelBooking(booking.getId(), 1L);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals("CANCELLED", status("bookings", "id", booking.getId()));
+    }
+
+    @Test
+    void payForBooking_shouldTellForeignBookingsFromMissingOnes() {
+        Booking booking = bookingService.bookUnit(request(newUnit()));
+
+        assertThrows(SecurityException.class, () -> bookingService.payForBooking(booking.getId(), 2L));
+        assertThrows(EntityNotFoundException.class, () -> bookingService.payForBooking(Long.MAX_VALUE, 1L));
+        assertEquals("PENDING", status("bookings", "id", booking.getId()));
+    }
+
+    @Test
+    void bookingResponse_shouldMapALazyBookingOutsideItsTransaction() {
+        Long unitId = newUnit();
+        Long bookingId = bookingService.bookUnit(request(unitId)).getId();
+        Booking detached = bookingRepository.findById(bookingId).orElseThrow();
+
+        BookingResponse response = BookingResponse.from(detached);
+
+        assertFalse(Hibernate.isInitialized(detached.getUnit()));
+        assertFalse(Hibernate.isInitialized(detached.getUser()));
+        assertEquals(bookingId, response.getId());
+        assertEquals(unitId, response.getUnitId());
+        assertEquals(1L, response.getUserId());
+        assertEquals("PENDING", response.getStatus().name());
+    }
+
+    private String status(String table, String column, Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + table + " WHERE " + column + " = ?", String.class, id);
+    }
+
+    private Long newUnit() {
+        return jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Aggregate unit', 'Aggregate loading test', 100, 'FLAT', 1, 1) RETURNING id", Long.class);
+    }
+
+    private static BookingCreateRequest request(Long unitId) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(1L);
+        request.setUnitId(unitId);
+        request.setStart("2028-03-01");
+        request.setEnd("2028-03-03");
+        return request;
+    }
+}
@@ -0,0 +1,99 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.service.BookingService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-unit bookings against a real database: the whole cart is created or nothing is, and the number of
+ * statements stays flat as the cart grows.
+ */
+class BookingBatchIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bookUnits_statementCountShouldNotGrowWithCartSize() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // the first cart primes the pooled id generators
+        bookingService.bookUnits(cart(newUnits(2)));
+
+        statistics.clear();
+        List<Booking> small = bookingService.bookUnits(cart(newUnits(2)));
+        long smallStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<Booking> large = bookingService.bookUnits(cart(newUnits(20)));
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(2, small.size());
+        assertEquals(20, large.size());
+        assertTrue(large.stream().allMatch(booking -> booking.getId() != null));
+        // at most one extra nextval per sequence when a cart crosses an id block
+        assertTrue(largeStatements <= smallStatements + 2,
+                "statements: cart of 2=" + smallStatements + ", cart of 20=" + largeStatements);
+        for (Booking booking : large) {
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM payments WHERE booking_id = ?",
+                    Integer.class, booking.getId()));
+        }
+    }
+
+    @Test
+    void bookUnits_shouldCreateNothingWhenOneUnitIsTaken() {
+        List<Long> unitIds = newUnits(3);
+        BookingCreateRequest taken = new BookingCreateRequest();
+        taken.setUserId(1L);
+        taken.setUnitId(unitIds.get(2));
+        taken.setStart("2027-03-02");
+        taken.setEnd("2027-03-04");
+        bookingService.bookUnit(taken);
+
+        assertThrows(IllegalStateException.class, () -> bookingService.bookUnits(cart(unitIds)));
+
+        for (Long unitId : unitIds.subList(0, 2)) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE unit_id = ?",
+                    Integer.class, unitId));
+        }
+    }
+
+    private List<Long> newUnits(int count) {
+        List<Long> unitIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            unitIds.add(jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                    + "VALUES (1, 'Cart unit', 'Batch booking test', 100, 'FLAT', 1, 1) RETURNING id", Long.class));
+        }
+        return unitIds;
+    }
+
+    private static List<BookingCreateRequest> cart(List<Long> unitIds) {
+        List<BookingCreateRequest> cart = new ArrayList<>();
+        for (Long unitId : unitIds) {
+            BookingCreateRequest request = new BookingCreateRequest();
+            request.setUserId(1L);
+            request.setUnitId(unitId);
+            request.setStart("2027-03-01");
+            request.setEnd("2027-03-05");
+            cart.add(request);
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,91 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.service.BookingService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires bursts of identical booking requests at a set of units from many threads at once: every unit must end
+ * up with exactly one active booking, and every loser must be turned away with a conflict.
+ */
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class BookingConcurrencyIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final int UNITS = 20;
+    private static final int ATTEMPTS_PER_UNIT = 25;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookUnit_concurrentAttemptsShouldProduceExactlyOneBookingPerUnit() throws Exception {
+        List<Long> unitIds = new ArrayList<>();
+        for (int i = 0; i < UNITS; i++) {
+            unitIds.add(jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                    + "VALUES (1, 'Contended unit', 'Stress test', 100, 'FLAT', 1, 1) RETURNING id", Long.class));
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_UNIT; attempt++) {
+            for (Long unitId : unitIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    BookingCreateRequest request = new BookingCreateRequest();
+                    request.setUserId(1L);
+                    request.setUnitId(unitId);
+                    request.setStart("2027-01-10");
+                    request.setEnd("2027-01-15");
+                    try {
+                        bookingService.bookUnit(request);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+
+        int attempts = UNITS * ATTEMPTS_PER_UNIT;
+        System.out.printf("%d booking attempts on %d units from %d threads in %.2f s: %.0f attempts/s, %d booked, %d rejected%n",
+                attempts, UNITS, THREADS, seconds, attempts / seconds, succeeded.get(), rejected.get());
+
+        assertEquals(UNITS, succeeded.get());
+        assertEquals(attempts - UNITS, rejected.get());
+        for (Long unitId : unitIds) {
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE unit_id = ? "
+                    + "AND status IN ('PENDING', 'CONFIRMED', 'PAID')", Integer.class, unitId));
+        }
+    }
+}
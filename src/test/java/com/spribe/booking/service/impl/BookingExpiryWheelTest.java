@@ -0,0 +1,56 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookingExpiryWheelTest {
+
+    private UnpaidBookingExpirer expirer;
+    private BookingExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        expirer = mock(UnpaidBookingExpirer.class);
+        wheel = new BookingExpiryWheel(expirer, mock(BookingRepository.class), true,
+                Duration.ofMinutes(15), Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    void tick_shouldExpireDueBookingsInOneBatch() {
+        LocalDateTime overdue = LocalDateTime.now().minusMinutes(16);
+        wheel.schedule(1L, overdue);
+        wheel.schedule(2L, overdue);
+        wheel.schedule(3L, LocalDateTime.now());
+
+        wheel.tick();
+
+        verify(expirer).expire(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        assertEquals(1, wheel.pending());
+    }
+
+    @Test
+    void cancel_shouldKeepPaidBookingFromExpiring() {
+        wheel.schedule(1L, LocalDateTime.now().minusMinutes(16));
+        wheel.cancel(1L);
+
+        wheel.tick();
+
+        verify(expirer, never()).expire(any());
+        assertEquals(0, wheel.pending());
+    }
+}
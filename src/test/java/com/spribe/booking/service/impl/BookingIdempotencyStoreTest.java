@@ -0,0 +1,179 @@
+package com.spribe.booking.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.dto.BookingResponse;
+import com.spribe.booking.enums.BookingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingIdempotencyStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StringRedisTemplate stringRedisTemplate;
+    private ValueOperations<String, String> values;
+    private BookingIdempotencyStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        store = new BookingIdempotencyStore(stringRedisTemplate, objectMapper, Duration.ofHours(24));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void execute_shouldReplayFirstBookingWithoutRunningAgain() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+
+        BookingResponse first = store.execute("key-1", request("2025-08-01"), () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(booking(10L));
+        }).get();
+        BookingResponse replayed = store.execute("key-1", request("2025-08-01"), () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(booking(11L));
+        }).get();
+
+        assertEquals(1, runs.get());
+        assertEquals(10L, first.getId());
+        assertEquals(10L, replayed.getId());
+        assertEquals(LocalDate.of(2025, 8, 1), replayed.getStartDate());
+        verify(values).set(eq("idempotency:booking:2:key-1"), anyString(), eq(Duration.ofHours(24)));
+    }
+
+    @Test
+    void execute_concurrentDuplicateShouldWaitForInFlightResult() throws Exception {
+        CompletableFuture<BookingResponse> running = new CompletableFuture<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<BookingResponse> first = store.execute("key-2", request("2025-08-01"), () -> {
+            runs.incrementAndGet();
+            return running;
+        });
+        CompletableFuture<BookingResponse> duplicate = store.execute("key-2", request("2025-08-01"), () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(booking(99L));
+        });
+        assertFalse(duplicate.isDone());
+
+        running.complete(booking(20L));
+
+        assertEquals(1, runs.get());
+        assertEquals(20L, first.get().getId());
+        assertEquals(20L, duplicate.get().getId());
+    }
+
+    @Test
+    void execute_shouldReleaseKeyWhenRequestFails() throws Exception {
+        CompletableFuture<BookingResponse> failed = store.execute("key-3", request("2025-08-01"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Unit is not available for the selected dates.")));
+
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        verify(stringRedisTemplate).delete("idempotency:booking:2:key-3");
+
+        BookingResponse retried = store.execute("key-3", request("2025-08-01"),
+                () -> CompletableFuture.completedFuture(booking(30L))).get();
+        assertEquals(30L, retried.getId());
+    }
+
+    @Test
+    void execute_shouldRejectKeyReusedForDifferentRequest() throws Exception {
+        store.execute("key-4", request("2025-08-01"), () -> CompletableFuture.completedFuture(booking(40L))).get();
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key-4", request("2025-09-01"),
+                () -> CompletableFuture.completedFuture(booking(41L))));
+    }
+
+    @Test
+    void execute_shouldReplayResponseStoredByAnotherNode() throws Exception {
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        String body = objectMapper.writeValueAsString(booking(50L));
+        when(values.get("idempotency:booking:2:key-5")).thenReturn(objectMapper.writeValueAsString(
+                new BookingIdempotencyStore.StoredResponse("1|2025-08-01|2025-08-03", true, body)));
+
+        BookingResponse replayed = store.execute("key-5", request("2025-08-01"),
+                () -> fail("a stored response must not run the request again")).get();
+
+        assertEquals(50L, replayed.getId());
+    }
+
+    @Test
+    void execute_shouldConflictWhileAnotherNodeRunsTheSameKey() throws Exception {
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(values.get("idempotency:booking:2:key-6")).thenReturn(objectMapper.writeValueAsString(
+                new BookingIdempotencyStore.StoredResponse("1|2025-08-01|2025-08-03", false, null)));
+
+        CompletableFuture<BookingResponse> result = store.execute("key-6", request("2025-08-01"),
+                () -> fail("a claimed key must not run the request again"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_shouldRenewClaimWhileRequestRunsAndStopOnceDone() throws Exception {
+        BookingIdempotencyStore shortClaims = new BookingIdempotencyStore(stringRedisTemplate, objectMapper,
+                Duration.ofHours(24), Duration.ofMillis(150));
+        CompletableFuture<BookingResponse> running = new CompletableFuture<>();
+        try {
+            CompletableFuture<BookingResponse> result =
+                    shortClaims.execute("key-7", request("2025-08-01"), () -> running);
+
+            // still waiting in a queue or on a lock after several claim lifetimes
+            verify(stringRedisTemplate, timeout(5000).atLeast(3)).execute(any(RedisScript.class),
+                    eq(List.of("idempotency:booking:2:key-7")), anyString(), eq("150"));
+            verify(values).setIfAbsent(eq("idempotency:booking:2:key-7"), anyString(), eq(Duration.ofMillis(150)));
+
+            running.complete(booking(70L));
+            assertEquals(70L, result.get().getId());
+            clearInvocations(stringRedisTemplate);
+            Thread.sleep(500);
+            verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+        } finally {
+            shortClaims.shutdown();
+        }
+    }
+
+    private static BookingCreateRequest request(String start) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(2L);
+        request.setUnitId(1L);
+        request.setStart(start);
+        request.setEnd(start.substring(0, 8) + "03");
+        return request;
+    }
+
+    private static BookingResponse booking(Long id) {
+        return new BookingResponse(id, 1L, 2L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3),
+                BookingStatus.PENDING, LocalDateTime.of(2025, 7, 1, 12, 0));
+    }
+}
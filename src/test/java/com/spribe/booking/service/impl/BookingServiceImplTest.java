@@ -13,18 +13,27 @@ import com.spribe.booking.repository.UnitRepository;
 import com.spribe.booking.repository.UserRepository;
 import com.spribe.booking.service.BookingService;
 import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class BookingServiceImplTest {
@@ -35,6 +44,12 @@ class BookingServiceImplTest {
     private UserRepository userRepo;
     private PaymentRepository paymentRepo;
     private UnitAvailabilityCacheService cacheService;
+    private AvailabilityIndex availabilityIndex;
+    private UnitCalendarCacheService calendarCache;
+    private UnitBookingLock unitBookingLock;
+    private UnpaidBookingExpirer unpaidBookingExpirer;
+    private BookingExpiryWheel expiryWheel;
+    private OptimisticRetry optimisticRetry;
 
     private Unit unit;
     private User user;
@@ -46,7 +61,18 @@ class BookingServiceImplTest {
         userRepo = mock(UserRepository.class);
         paymentRepo = mock(PaymentRepository.class);
         cacheService = mock(UnitAvailabilityCacheService.class);
-        service = new BookingServiceImpl(bookingRepo, unitRepo, userRepo, paymentRepo, cacheService);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        calendarCache = mock(UnitCalendarCacheService.class);
+        unitBookingLock = mock(UnitBookingLock.class);
+        unpaidBookingExpirer = mock(UnpaidBookingExpirer.class);
+        expiryWheel = mock(BookingExpiryWheel.class);
+        optimisticRetry = mock(OptimisticRetry.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(optimisticRetry).run(anyString(), any());
+        service = new BookingServiceImpl(bookingRepo, unitRepo, userRepo, paymentRepo, cacheService, availabilityIndex,
+                calendarCache, unitBookingLock, unpaidBookingExpirer, expiryWheel, optimisticRetry);
 
         unit = new Unit();
         unit.setId(1L);
@@ -60,9 +86,7 @@ class BookingServiceImplTest {
     void bookUnit_shouldCreateBooking() {
         when(unitRepo.findById(1L)).thenReturn(Optional.of(unit));
         when(userRepo.findById(2L)).thenReturn(Optional.of(user));
-        when(bookingRepo.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                any(), any(), any(), any()
-        )).thenReturn(Collections.emptyList());
+        when(bookingRepo.existsActiveOverlap(any(), any(), any())).thenReturn(false);
 
         when(bookingRepo.save(any())).thenAnswer(i -> i.getArgument(0));
         when(paymentRepo.save(any())).thenAnswer(i -> i.getArgument(0));
@@ -77,15 +101,15 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.PENDING, result.getStatus());
         assertEquals(user, result.getUser());
         assertEquals(unit, result.getUnit());
+        verify(unitBookingLock).lockUntilCompletion(1L);
+        verify(expiryWheel).schedule(result.getId(), result.getCreatedAt());
     }
 
     @Test
     void bookUnit_shouldFailOnOverlap() {
         when(unitRepo.findById(1L)).thenReturn(Optional.of(unit));
         when(userRepo.findById(2L)).thenReturn(Optional.of(user));
-        when(bookingRepo.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                any(), any(), any(), any()
-        )).thenReturn(List.of(new Booking()));
+        when(bookingRepo.existsActiveOverlap(any(), any(), any())).thenReturn(true);
 
         BookingCreateRequest req = new BookingCreateRequest();
         req.setUserId(2L);
@@ -96,42 +120,136 @@ class BookingServiceImplTest {
                 () -> service.bookUnit(req));
     }
 
+    @Test
+    void bookUnit_shouldReportConcurrentOverlapAsConflict() {
+        when(unitRepo.findById(1L)).thenReturn(Optional.of(unit));
+        when(userRepo.findById(2L)).thenReturn(Optional.of(user));
+        when(bookingRepo.existsActiveOverlap(any(), any(), any())).thenReturn(false);
+        when(bookingRepo.save(any())).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setUserId(2L);
+        req.setUnitId(1L);
+        req.setStart("2025-08-01");
+        req.setEnd("2025-08-03");
+        assertThrows(IllegalStateException.class, () -> service.bookUnit(req));
+    }
+
+    @Test
+    void bookUnits_shouldRejectWholeBatchWhenRequestsOverlapEachOther() {
+        when(unitRepo.findAllWithOwnerByIdIn(any())).thenReturn(List.of(unit));
+        when(userRepo.findAllById(any())).thenReturn(List.of(user));
+
+        BookingCreateRequest first = new BookingCreateRequest();
+        first.setUserId(2L);
+        first.setUnitId(1L);
+        first.setStart("2025-08-01");
+        first.setEnd("2025-08-03");
+        BookingCreateRequest second = new BookingCreateRequest();
+        second.setUserId(2L);
+        second.setUnitId(1L);
+        second.setStart("2025-08-03");
+        second.setEnd("2025-08-05");
+
+        assertThrows(IllegalStateException.class, () -> service.bookUnits(List.of(first, second)));
+        verify(bookingRepo, never()).save(any());
+    }
+
+    @Test
+    void bookUnits_shouldBookEveryUnitAndFlushOnce() {
+        Unit other = new Unit();
+        other.setId(3L);
+        other.setCostPerDay(BigDecimal.valueOf(50));
+        when(unitRepo.findAllWithOwnerByIdIn(any())).thenReturn(List.of(unit, other));
+        when(userRepo.findAllById(any())).thenReturn(List.of(user));
+        when(bookingRepo.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(paymentRepo.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        BookingCreateRequest first = new BookingCreateRequest();
+        first.setUserId(2L);
+        first.setUnitId(1L);
+        first.setStart("2025-08-01");
+        first.setEnd("2025-08-03");
+        BookingCreateRequest second = new BookingCreateRequest();
+        second.setUserId(2L);
+        second.setUnitId(3L);
+        second.setStart("2025-08-01");
+        second.setEnd("2025-08-03");
+
+        List<Booking> booked = service.bookUnits(List.of(first, second));
+
+        assertEquals(2, booked.size());
+        assertEquals(unit, booked.get(0).getUnit());
+        assertEquals(other, booked.get(1).getUnit());
+        verify(unitBookingLock).lockAllUntilCompletion(Set.of(1L, 3L));
+        verify(bookingRepo).flush();
+        verify(cacheService).invalidate(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3));
+    }
+
+    @Test
+    void bookUnits_shouldFailWhenAUnitDoesNotExist() {
+        when(unitRepo.findAllWithOwnerByIdIn(any())).thenReturn(List.of());
+        when(userRepo.findAllById(any())).thenReturn(List.of(user));
+
+        BookingCreateRequest req = new BookingCreateRequest();
+        req.setUserId(2L);
+        req.setUnitId(1L);
+        req.setStart("2025-08-01");
+        req.setEnd("2025-08-03");
+
+        assertThrows(EntityNotFoundException.class, () -> service.bookUnits(List.of(req)));
+        verify(bookingRepo, never()).save(any());
+    }
+
     @Test
     void cancelBooking_shouldWork() {
         Booking b = new Booking();
         b.setId(1L);
+        b.setUnit(unit);
         b.setUser(user);
         b.setStatus(BookingStatus.PENDING);
-        when(bookingRepo.findById(1L)).thenReturn(Optional.of(b));
+        b.setStartDate(LocalDate.of(2025, 8, 1));
+        b.setEndDate(LocalDate.of(2025, 8, 3));
+        when(bookingRepo.findByIdAndUserId(1L, 2L)).thenReturn(Optional.of(b));
         service.cancelBooking(1L, 2L);
         assertEquals(BookingStatus.CANCELLED, b.getStatus());
+        verify(calendarCache).evict(1L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3));
+        verify(bookingRepo).saveAndFlush(b);
+        verify(bookingRepo, never()).existsById(any());
     }
 
     @Test
     void cancelBooking_shouldFailIfUserMismatch() {
-        Booking b = new Booking();
-        b.setId(1L);
-        b.setUser(new User(1L, "Full Name", "email@mail.com", LocalDateTime.now()));
-        when(bookingRepo.findById(1L)).thenReturn(Optional.of(b));
+        when(bookingRepo.findByIdAndUserId(1L, 99L)).thenReturn(Optional.empty());
+        when(bookingRepo.existsById(1L)).thenReturn(true);
         assertThrows(SecurityException.class, () -> service.cancelBooking(1L, 99L));
     }
 
+    @Test
+    void cancelBooking_shouldFailIfBookingMissing() {
+        when(bookingRepo.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(bookingRepo.existsById(1L)).thenReturn(false);
+        assertThrows(EntityNotFoundException.class, () -> service.cancelBooking(1L, 2L));
+    }
+
     @Test
     void payForBooking_shouldWork() {
         Booking b = new Booking();
         b.setId(1L);
         b.setUser(user);
         b.setStatus(BookingStatus.PENDING);
-        when(bookingRepo.findById(1L)).thenReturn(Optional.of(b));
-
         Payment p = new Payment();
-        when(paymentRepo.findById(1L)).thenReturn(Optional.of(p));
+        p.setBooking(b);
+        when(paymentRepo.findWithBookingByBookingIdAndUserId(1L, 2L)).thenReturn(Optional.of(p));
 
         service.payForBooking(1L, 2L);
 
         assertEquals(BookingStatus.PAID, b.getStatus());
         assertEquals(PaymentStatus.PAID, p.getStatus());
         assertNotNull(p.getPaymentTime());
+        verify(expiryWheel).cancel(1L);
+        verify(bookingRepo, never()).findById(any());
     }
 
     @Test
@@ -140,33 +258,25 @@ class BookingServiceImplTest {
         b.setId(1L);
         b.setUser(user);
         b.setStatus(BookingStatus.CANCELLED);
-        when(bookingRepo.findById(1L)).thenReturn(Optional.of(b));
+        Payment p = new Payment();
+        p.setBooking(b);
+        when(paymentRepo.findWithBookingByBookingIdAndUserId(1L, 2L)).thenReturn(Optional.of(p));
         assertThrows(IllegalStateException.class, () -> service.payForBooking(1L, 2L));
     }
 
     @Test
-    void autoExpireUnpaidBookings_shouldExpireOldOnes() {
-        Booking b1 = new Booking();
-        b1.setId(1L);
-        b1.setStatus(BookingStatus.PENDING);
-        b1.setCreatedAt(LocalDateTime.now().minusMinutes(20));
-        b1.setUser(user);
-
-        Booking b2 = new Booking();
-        b2.setId(2L);
-        b2.setStatus(BookingStatus.CONFIRMED); // not affected
-        b2.setCreatedAt(LocalDateTime.now().minusMinutes(30));
-        b2.setUser(user);
-
-        when(bookingRepo.findAll()).thenReturn(List.of(b1, b2));
-
-        Payment p = new Payment();
-        when(paymentRepo.findById(1L)).thenReturn(Optional.of(p));
+    void payForBooking_shouldFailIfUserMismatch() {
+        when(paymentRepo.findWithBookingByBookingIdAndUserId(1L, 99L)).thenReturn(Optional.empty());
+        when(bookingRepo.existsById(1L)).thenReturn(true);
+        assertThrows(SecurityException.class, () -> service.payForBooking(1L, 99L));
+    }
 
+    @Test
+    void autoExpireUnpaidBookings_shouldExpireInBulkWithoutLoadingBookings() {
         service.autoExpireUnpaidBookings();
 
-        assertEquals(BookingStatus.EXPIRED, b1.getStatus());
-        assertEquals(PaymentStatus.FAILED, p.getStatus());
+        verify(unpaidBookingExpirer).expireUnpaid();
+        verify(bookingRepo, never()).findAll();
     }
 
 }
\ No newline at end of file
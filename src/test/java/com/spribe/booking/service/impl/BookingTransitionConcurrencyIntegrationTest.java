@@ -0,0 +1,170 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.service.BookingService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races every pair of state transitions on a due PENDING booking, many times over: payment, cancellation and
+ * expiry. Whatever the interleaving, the booking and its payment must end in a state some serial order of the
+ * transitions that reported success would produce: a payment never survives expiry, an expired booking always
+ * has a failed payment, and a PENDING booking is paid at most once.
+ */
+@TestPropertySource(properties = {"spring.jpa.show-sql=false", "booking.expiry.wheel.enabled=false"})
+class BookingTransitionConcurrencyIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    private static final int ROUNDS = 25;
+
+    private static ExecutorService executor;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UnpaidBookingExpirer expirer;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private enum Transition {
+        PAY, CANCEL, EXPIRE
+    }
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    void payRacingPay_shouldChargeOnce() throws Exception {
+        race(Transition.PAY, Transition.PAY);
+    }
+
+    @Test
+    void payRacingCancel_shouldEndCancelled() throws Exception {
+        race(Transition.PAY, Transition.CANCEL);
+    }
+
+    @Test
+    void payRacingExpire_shouldLetExactlyOneWin() throws Exception {
+        race(Transition.PAY, Transition.EXPIRE);
+    }
+
+    @Test
+    void cancelRacingCancel_shouldEndCancelled() throws Exception {
+        race(Transition.CANCEL, Transition.CANCEL);
+    }
+
+    @Test
+    void cancelRacingExpire_shouldKeepPaymentInLineWithBooking() throws Exception {
+        race(Transition.CANCEL, Transition.EXPIRE);
+    }
+
+    @Test
+    void expireRacingExpire_shouldExpireOnce() throws Exception {
+        race(Transition.EXPIRE, Transition.EXPIRE);
+    }
+
+    private void race(Transition first, Transition second) throws Exception {
+        Long unitId = jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Transition unit', 'Transition stress test', 100, 'FLAT', 1, 1) RETURNING id", Long.class);
+        long conflictsBefore = optimisticRetry.getConflicts();
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDate start = LocalDate.of(2029, 1, 1).plusDays(3L * round);
+            Long bookingId = bookingService.bookUnit(request(unitId, start, start.plusDays(1))).getId();
+            // past its payment window, so the expiry contends too
+            jdbcTemplate.update("UPDATE bookings SET created_at = created_at - interval '1 hour' WHERE id = ?", bookingId);
+
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Future<Boolean> firstApplied = executor.submit(() -> apply(first, bookingId, barrier));
+            Future<Boolean> secondApplied = executor.submit(() -> apply(second, bookingId, barrier));
+            check(List.of(first, second), List.of(firstApplied.get(1, TimeUnit.MINUTES),
+                    secondApplied.get(1, TimeUnit.MINUTES)), bookingId);
+        }
+        System.out.printf("%s vs %s: %d rounds, %d optimistic lock conflicts retried%n",
+                first, second, ROUNDS, optimisticRetry.getConflicts() - conflictsBefore);
+    }
+
+    /**
+     * Runs the transition once both threads are ready.
+     *
+     * @return whether it changed the booking; false when it was turned away with a conflict or found nothing to do
+     */
+    private boolean apply(Transition transition, Long bookingId, CyclicBarrier barrier) throws Exception {
+        barrier.await(30, TimeUnit.SECONDS);
+        try {
+            return switch (transition) {
+                case PAY -> {
+                    bookingService.payForBooking(bookingId, 1L);
+                    yield true;
+                }
+                case CANCEL -> {
+                    bookingService.cancelBooking(bookingId, 1L);
+                    yield true;
+                }
+                case EXPIRE -> expirer.expire(List.of(bookingId)) == 1;
+            };
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private void check(List<Transition> transitions, List<Boolean> applied, Long bookingId) {
+        int paid = 0;
+        int expired = 0;
+        boolean cancelled = false;
+        for (int i = 0; i < transitions.size(); i++) {
+            switch (transitions.get(i)) {
+                case PAY -> paid += applied.get(i) ? 1 : 0;
+                case EXPIRE -> expired += applied.get(i) ? 1 : 0;
+                case CANCEL -> cancelled = true;
+            }
+        }
+        String bookingStatus = status("bookings", "id", bookingId);
+        String paymentStatus = status("payments", "booking_id", bookingId);
+        String outcome = transitions + " applied " + applied + ": booking " + bookingStatus + ", payment " + paymentStatus;
+
+        assertTrue(paid + expired <= 1, "paid and expired more than once in total: " + outcome);
+        assertTrue(paid + expired > 0 || cancelled, "no transition won: " + outcome);
+        assertEquals(paid == 1 ? "PAID" : expired == 1 ? "FAILED" : "PENDING", paymentStatus, outcome);
+        String expectedBooking = expired == 1 ? "EXPIRED" : cancelled ? "CANCELLED" : "PAID";
+        assertEquals(expectedBooking, bookingStatus, outcome);
+    }
+
+    private String status(String table, String column, Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + table + " WHERE " + column + " = ?", String.class, id);
+    }
+
+    private static BookingCreateRequest request(Long unitId, LocalDate start, LocalDate end) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(1L);
+        request.setUnitId(unitId);
+        request.setStart(start.toString());
+        request.setEnd(end.toString());
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.spribe.booking.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_shouldFireAtTheDeadlineTickAndNotBefore() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        // fifteen minutes: placed on the second level and cascaded down
+        wheel.schedule(1L, START + 900_000);
+
+        assertEquals(List.of(), wheel.advance(START + 899_999));
+        assertEquals(List.of(1L), wheel.advance(START + 900_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_shouldKeepIdFromFiring() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        wheel.schedule(1L, START + 5_000);
+        wheel.schedule(2L, START + 5_000);
+
+        wheel.cancel(1L);
+
+        assertEquals(List.of(2L), wheel.advance(START + 10_000));
+    }
+
+    @Test
+    void schedule_pastDeadlineShouldFireOnNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+
+        wheel.schedule(1L, START - 60_000);
+
+        assertEquals(List.of(1L), wheel.advance(START));
+    }
+
+    @Test
+    void advance_everyIdShouldFireInTheStepThatReachesItsDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, START);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 5_000; id++) {
+            long deadline = START + (long) (random.nextDouble() * 3 * 64 * 64 * 64 * TICK);
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        long now = START;
+        List<Long> fired = new ArrayList<>();
+        while (wheel.size() > 0) {
+            long previous = now;
+            now += (1 + random.nextInt(5_000)) * TICK;
+            for (Long id : wheel.advance(now)) {
+                long deadline = deadlines.get(id);
+                assertTrue(Math.ceilDiv(deadline, TICK) > previous / TICK && deadline <= now,
+                        "id " + id + " with deadline " + deadline + " fired in step (" + previous + ", " + now + "]");
+                fired.add(id);
+            }
+        }
+        assertEquals(deadlines.size(), fired.size());
+    }
+}
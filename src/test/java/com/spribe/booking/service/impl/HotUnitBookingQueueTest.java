@@ -0,0 +1,176 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.repository.BookingRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.service.BookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HotUnitBookingQueueTest {
+
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+    private HotUnitBookingQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        bookingService = mock(BookingService.class);
+        bookingRepository = mock(BookingRepository.class);
+        queue = new HotUnitBookingQueue(bookingService, bookingRepository, true, 100, 3, 1, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void submit_shouldBookDirectlyWhenDisabled() throws Exception {
+        HotUnitBookingQueue disabled = new HotUnitBookingQueue(bookingService, bookingRepository, false, 100, 3, 1, false);
+        BookingCreateRequest request = request("2025-08-01", "2025-08-03");
+        Booking booking = new Booking();
+        when(bookingService.bookUnit(request)).thenReturn(booking);
+
+        assertSame(booking, disabled.submit(request).get());
+        verifyNoInteractions(bookingRepository);
+        disabled.shutdown();
+    }
+
+    @Test
+    void submit_shouldRejectLosersAndCommitWinnersOfABatchTogether() throws Exception {
+        CountDownLatch firstBatchReading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BookingPeriod firstBooking = period(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3));
+        when(bookingRepository.findPeriodsOverlapping(eq(1L), any(), any()))
+                .thenAnswer(invocation -> {
+                    firstBatchReading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return List.of();
+                })
+                .thenReturn(List.of(firstBooking));
+        when(bookingService.bookUnits(anyList()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream().map(r -> new Booking()).toList());
+
+        CompletableFuture<Booking> first = queue.submit(request("2025-08-01", "2025-08-03"));
+        assertTrue(firstBatchReading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Booking> overlapsFirst = queue.submit(request("2025-08-02", "2025-08-04"));
+        CompletableFuture<Booking> free = queue.submit(request("2025-08-10", "2025-08-12"));
+        CompletableFuture<Booking> overlapsFree = queue.submit(request("2025-08-11", "2025-08-13"));
+        release.countDown();
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(free.get(5, TimeUnit.SECONDS));
+        assertConflict(overlapsFirst);
+        assertConflict(overlapsFree);
+        verify(bookingService, times(2)).bookUnits(argThat(requests -> requests.size() == 1));
+        verify(bookingService, never()).bookUnit(any());
+    }
+
+    @Test
+    void submit_shouldFailFastWhenUnitQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingRepository.findPeriodsOverlapping(eq(1L), any(), any()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return List.of();
+                });
+
+        // the first request is taken by the worker, the next three fill the queue
+        for (int i = 0; i < 4; i++) {
+            queue.submit(request("2025-09-0" + (i + 1), "2025-09-0" + (i + 2)));
+        }
+        CompletableFuture<Booking> rejected = null;
+        for (int i = 0; i < 10 && rejected == null; i++) {
+            CompletableFuture<Booking> attempt = queue.submit(request("2025-10-01", "2025-10-02"));
+            if (attempt.isCompletedExceptionally()) {
+                rejected = attempt;
+            }
+        }
+        release.countDown();
+
+        assertNotNull(rejected);
+        assertConflict(rejected);
+    }
+
+    @Test
+    void submit_shouldKeepServingAUnitAfterABatchFailedWithAnError() throws Exception {
+        when(bookingRepository.findPeriodsOverlapping(eq(1L), any(), any()))
+                .thenThrow(new AssertionError("boom"))
+                .thenReturn(List.of());
+        when(bookingService.bookUnits(anyList())).thenReturn(List.of(new Booking()));
+
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> queue.submit(request("2025-08-01", "2025-08-03")).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, failed.getCause());
+
+        assertNotNull(queue.submit(request("2025-08-01", "2025-08-03")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_shouldFailOnceShutDown() {
+        queue.shutdown();
+
+        assertConflict(queue.submit(request("2025-08-01", "2025-08-03")));
+        verifyNoInteractions(bookingService, bookingRepository);
+    }
+
+    @Test
+    void submit_shouldRejectRequestWithoutUnitBeforeQueueing() {
+        BookingCreateRequest request = request("2025-08-01", "2025-08-03");
+        request.setUnitId(null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queue.submit(request).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        verifyNoInteractions(bookingService, bookingRepository);
+    }
+
+    @Test
+    void submit_shouldDrainOnVirtualThreadsWhenEnabled() throws Exception {
+        HotUnitBookingQueue virtual = new HotUnitBookingQueue(bookingService, bookingRepository, true, 100, 3, 1, true);
+        when(bookingRepository.findPeriodsOverlapping(eq(1L), any(), any())).thenReturn(List.of());
+        when(bookingService.bookUnits(anyList())).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().isVirtual());
+            return List.of(new Booking());
+        });
+
+        assertNotNull(virtual.submit(request("2025-08-01", "2025-08-03")).get(5, TimeUnit.SECONDS));
+        virtual.shutdown();
+    }
+
+    private static void assertConflict(CompletableFuture<Booking> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private static BookingCreateRequest request(String start, String end) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(2L);
+        request.setUnitId(1L);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
+    private static BookingPeriod period(LocalDate start, LocalDate end) {
+        BookingPeriod period = mock(BookingPeriod.class);
+        when(period.getStartDate()).thenReturn(start);
+        when(period.getEndDate()).thenReturn(end);
+        return period;
+    }
+}
@@ -0,0 +1,135 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.BookingSystemApplication;
+import com.spribe.booking.dto.JobLeaseStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three application contexts share one database, as three nodes would: a job registered on all of them runs on
+ * one node at a time, and when that node stops another one takes over with a higher fencing token that fences
+ * off the old one's writes.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class JobLeaseClusterIntegrationTest {
+
+    private static final String JOB = "cluster-test-job";
+    private static final int NODES = 3;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void runIfLeader_shouldRunOnOneNodeAtATimeAndFailOverOnShutdown() throws Exception {
+        List<ClusterJob> jobs = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            ConfigurableApplicationContext node = start("node-" + i);
+            nodes.add(node);
+            jobs.add(node.getBean(JobLeaseCoordinator.class).register(JOB, Duration.ofSeconds(30)));
+        }
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ConcurrentLinkedQueue<ClusterJob.JobLease> leases = new ConcurrentLinkedQueue<>();
+        List<Future<Integer>> runsPerNode = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(NODES)) {
+            for (ClusterJob job : jobs) {
+                runsPerNode.add(executor.submit(() -> {
+                    int ran = 0;
+                    for (int attempt = 0; attempt < 30; attempt++) {
+                        if (job.runIfLeader(lease -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            leases.add(lease);
+                            sleep(5);
+                            running.decrementAndGet();
+                        })) {
+                            ran++;
+                        }
+                    }
+                    return ran;
+                }));
+            }
+        }
+
+        assertEquals(1, maxRunning.get());
+        int leader = -1;
+        for (int i = 0; i < NODES; i++) {
+            if (runsPerNode.get(i).get() > 0) {
+                assertEquals(-1, leader, "more than one node ran the job");
+                leader = i;
+            }
+        }
+        assertNotEquals(-1, leader);
+        assertEquals(30, runsPerNode.get(leader).get());
+        long firstToken = leases.peek().fencingToken();
+        assertTrue(leases.stream().allMatch(lease -> lease.fencingToken() == firstToken));
+        assertTrue(jobs.get(leader).isHeld(leases.peek()));
+
+        // stopping the leader releases its lease; the next node to try takes over
+        nodes.remove(leader).close();
+        ClusterJob successor = jobs.get((leader + 1) % NODES);
+        List<ClusterJob.JobLease> taken = new ArrayList<>();
+        assertTrue(successor.runIfLeader(taken::add));
+        assertEquals(firstToken + 1, taken.get(0).fencingToken());
+        // a run of the old leader that resumes now is fenced off; the successor's is not
+        assertFalse(successor.fence(leases.peek()));
+        assertTrue(successor.fence(taken.get(0)));
+
+        JobLeaseStats stats = nodes.get(0).getBean(JobLeaseCoordinator.class).getStats().stream()
+                .filter(job -> job.getJobName().equals(JOB))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(taken.get(0).owner(), stats.getOwner());
+        assertEquals(firstToken + 1, stats.getFencingToken());
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(BookingSystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "booking.jobs.node-id=" + nodeId,
+                        "booking.expiry.wheel.enabled=false",
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "spring.data.redis.host=" + REDIS.getHost(),
+                        "spring.data.redis.port=" + REDIS.getMappedPort(6379),
+                        "spring.jpa.show-sql=false")
+                .run();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
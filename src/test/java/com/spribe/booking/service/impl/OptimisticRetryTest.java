@@ -0,0 +1,79 @@
+package com.spribe.booking.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OptimisticRetryTest {
+
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setup() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        retry = new OptimisticRetry(transactionTemplate, 3, Duration.ofMillis(1), Duration.ofMillis(4));
+    }
+
+    @Test
+    void run_shouldRetryConflictsUntilAnAttemptSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        retry.run("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Booking", 1L);
+            }
+        });
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, retry.getConflicts());
+        assertEquals(0, retry.getExhausted());
+    }
+
+    @Test
+    void run_shouldGiveUpWithConflictAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> retry.run("test", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Booking", 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+        assertEquals(1, retry.getExhausted());
+    }
+
+    @Test
+    void run_shouldNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retry.run("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Booking must be in PENDING state.");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, retry.getConflicts());
+    }
+
+    @Test
+    void backoff_shouldStayWithinTheDoublingCeilingAndTheCap() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retry.backoffMillis(1) <= 1);
+            assertTrue(retry.backoffMillis(2) <= 2);
+            assertTrue(retry.backoffMillis(30) <= 4);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays, against a real Redis, the interleavings of a cache miss with a booking's invalidation that used to
+ * leave a wrong count cached for the full TTL.
+ */
+class UnitAvailabilityCacheIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private UnitAvailabilityCacheService cacheService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void countComputedBeforeABookingAndStoredAfterItsInvalidation_shouldNotBeServed() {
+        LocalDate start = LocalDate.of(2031, 3, 1);
+        LocalDate end = start.plusDays(4);
+
+        UnitAvailabilityCacheService.Lookup miss = cacheService.lookupAvailableCount(start, end);
+        cacheService.invalidate(start.plusDays(2), start.plusDays(3));
+        cacheService.putAvailableCount(miss, 99);
+
+        assertFalse(cacheService.lookupAvailableCount(start, end).isHit());
+        UnitAvailabilityCacheService.Lookup fresh = cacheService.lookupAvailableCount(start, end);
+        cacheService.putAvailableCount(fresh, 98);
+        assertEquals(98L, cacheService.lookupAvailableCount(start, end).count());
+    }
+
+    @Test
+    void countMissingFromTheDayIndex_shouldStillNotBeServedAfterAnOverlappingInvalidation() {
+        LocalDate start = LocalDate.of(2031, 4, 1);
+        LocalDate end = start.plusDays(2);
+        cacheService.putAvailableCount(cacheService.lookupAvailableCount(start, end), 7);
+        // what an invalidation removing a re-stored key from the index sets used to leave behind
+        Set<String> stored = stringRedisTemplate.keys("unit_availability:" + start + ":" + end + ":*");
+        assertNotNull(stored);
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            stringRedisTemplate.opsForSet().remove("unit_availability_index:" + day, stored.toArray());
+        }
+
+        cacheService.invalidate(end, end.plusDays(1));
+
+        assertFalse(cacheService.lookupAvailableCount(start, end).isHit());
+    }
+}
@@ -0,0 +1,143 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.AvailabilityCacheStats;
+import com.spribe.booking.service.UnitAvailabilityCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UnitAvailabilityCacheServiceImplTest {
+
+    private static final LocalDate AUG_1 = LocalDate.of(2025, 8, 1);
+
+    private UnitAvailabilityCacheServiceImpl service;
+    private RedisTemplate<String, Long> redisTemplate;
+    private ValueOperations<String, Long> valueOps;
+    private SetOperations<String, String> setOps;
+    private StringRedisTemplate stringRedisTemplate;
+    private ValueOperations<String, String> stringValueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        setOps = mock(SetOperations.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        stringValueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOps);
+        when(stringRedisTemplate.opsForValue()).thenReturn(stringValueOps);
+        service = new UnitAvailabilityCacheServiceImpl(redisTemplate, stringRedisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void lookupAvailableCount_shouldServeRepeatedReadsLocally() {
+        when(valueOps.get("unit_availability:2025-08-01:2025-08-10:0")).thenReturn(42L);
+
+        assertEquals(42L, cached(AUG_1, AUG_1.plusDays(9)));
+        assertEquals(42L, cached(AUG_1, AUG_1.plusDays(9)));
+
+        verify(valueOps, times(1)).get(any());
+        AvailabilityCacheStats stats = service.getStats();
+        assertEquals(1, stats.getLocalHits());
+        assertEquals(1, stats.getLocalMisses());
+        assertEquals(1, stats.getRedisHits());
+    }
+
+    @Test
+    void invalidate_shouldDropOverlappingLocalEntriesAndBroadcast() {
+        put(AUG_1, AUG_1.plusDays(9), 10);
+        put(AUG_1.plusDays(20), AUG_1.plusDays(25), 20);
+        when(setOps.union(anyCollection())).thenReturn(Set.of());
+
+        service.invalidate(AUG_1.plusDays(2), AUG_1.plusDays(4));
+
+        assertNull(cached(AUG_1, AUG_1.plusDays(9)));
+        assertEquals(20L, cached(AUG_1.plusDays(20), AUG_1.plusDays(25)));
+        verify(stringRedisTemplate).convertAndSend(eq(UnitAvailabilityCacheServiceImpl.INVALIDATION_CHANNEL), eq("2025-08-03:2025-08-05"));
+    }
+
+    @Test
+    void invalidate_shouldDeleteEveryOverlappingRedisKey() {
+        Set<String> overlapping = Set.of("unit_availability:2025-08-01:2025-08-10", "unit_availability:2025-08-04:2025-08-04");
+        when(setOps.union(anyCollection())).thenReturn(overlapping);
+        when(redisTemplate.delete(overlapping)).thenReturn(2L);
+
+        service.invalidate(AUG_1.plusDays(2), AUG_1.plusDays(4));
+
+        verify(redisTemplate).delete(overlapping);
+        verify(redisTemplate, never()).keys(any());
+        assertEquals(2, service.getStats().getRedisEvictions());
+    }
+
+    @Test
+    void invalidate_shouldWaitForTheTransactionToCommit() {
+        put(AUG_1, AUG_1.plusDays(9), 10);
+        when(setOps.union(anyCollection())).thenReturn(Set.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.invalidate(AUG_1.plusDays(2), AUG_1.plusDays(4));
+
+            assertEquals(10L, cached(AUG_1, AUG_1.plusDays(9)));
+            verify(stringRedisTemplate, never()).convertAndSend(any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cached(AUG_1, AUG_1.plusDays(9)));
+        verify(stringRedisTemplate).convertAndSend(eq(UnitAvailabilityCacheServiceImpl.INVALIDATION_CHANNEL), eq("2025-08-03:2025-08-05"));
+    }
+
+    @Test
+    void putAvailableCount_shouldNotCacheACountLookedUpBeforeAnInvalidation() {
+        when(stringValueOps.multiGet(anyCollection())).thenReturn(List.of("4"), List.of("5"));
+        when(setOps.union(anyCollection())).thenReturn(Set.of());
+
+        UnitAvailabilityCacheService.Lookup miss = service.lookupAvailableCount(AUG_1, AUG_1);
+        // the booking commits and is invalidated while the count is being computed from the older rows
+        service.invalidate(AUG_1, AUG_1);
+        service.putAvailableCount(miss, 10);
+
+        verify(valueOps).set(eq("unit_availability:2025-08-01:2025-08-01:4"), eq(10L), any());
+        assertNull(cached(AUG_1, AUG_1));
+        verify(valueOps).get("unit_availability:2025-08-01:2025-08-01:5");
+    }
+
+    @Test
+    void onInvalidationMessage_shouldDropOnlyOverlappingLocalEntries() {
+        put(AUG_1, AUG_1.plusDays(2), 5);
+        put(AUG_1.plusDays(10), AUG_1.plusDays(12), 6);
+
+        service.onInvalidationMessage("2025-08-02:2025-08-02");
+
+        assertNull(cached(AUG_1, AUG_1.plusDays(2)));
+        assertEquals(6L, cached(AUG_1.plusDays(10), AUG_1.plusDays(12)));
+    }
+
+    private void put(LocalDate start, LocalDate end, long count) {
+        service.putAvailableCount(service.lookupAvailableCount(start, end), count);
+    }
+
+    private Long cached(LocalDate start, LocalDate end) {
+        return service.lookupAvailableCount(start, end).count();
+    }
+}
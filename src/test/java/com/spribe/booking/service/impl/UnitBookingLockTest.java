@@ -0,0 +1,77 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitBookingLockTest {
+
+    private BookingRepository bookingRepository;
+    private UnitBookingLock lock;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        lock = new UnitBookingLock(bookingRepository, true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void lockUntilCompletion_shouldHoldStripeAndAdvisoryLockUntilTransactionCompletes() {
+        lock.lockUntilCompletion(42L);
+
+        ReentrantLock stripe = lock.stripeFor(42L);
+        assertTrue(stripe.isHeldByCurrentThread());
+        verify(bookingRepository).lockUnit(42L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertFalse(stripe.isLocked());
+    }
+
+    @Test
+    void lockAllUntilCompletion_shouldHoldEveryStripeUntilTransactionCompletes() {
+        List<Long> unitIds = List.of(3L, 1L, 2L);
+        lock.lockAllUntilCompletion(unitIds);
+
+        unitIds.forEach(unitId -> assertTrue(lock.stripeFor(unitId).isHeldByCurrentThread()));
+        verify(bookingRepository).lockUnits(unitIds);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        unitIds.forEach(unitId -> assertFalse(lock.stripeFor(unitId).isLocked()));
+    }
+
+    @Test
+    void stripeFor_shouldSpreadNeighbouringUnits() {
+        assertSame(lock.stripeFor(7L), lock.stripeFor(7L));
+        long distinct = LongStream.rangeClosed(1, 64)
+                .mapToObj(lock::stripeFor)
+                .distinct()
+                .count();
+        assertTrue(distinct > 56, "neighbouring units should rarely share a stripe, distinct=" + distinct);
+    }
+
+    @Test
+    void lockUntilCompletion_shouldDoNothingWhenDisabled() {
+        new UnitBookingLock(bookingRepository, false).lockUntilCompletion(42L);
+
+        verifyNoInteractions(bookingRepository);
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.UnitImportResponse;
+import com.spribe.booking.enums.UnitImportFormat;
+import com.spribe.booking.service.UnitService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitBulkImportIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importUnits_csvShouldLoadValidRowsAndReportInvalidOnes() {
+        String csv = """
+                title,description,type,numberOfRooms,costPerDay,floor
+                Harbour view,"Two rooms, ""sea"" side",FLAT,2,120.50,3
+                Garden house,,HOME,4,300,0
+                Broken type,,CASTLE,2,100,1
+                No rooms,,FLAT,0,100,1
+                Loft,Top floor,APARTMENTS,1,80,9
+                """;
+
+        UnitImportResponse response = unitService.importUnits(1L, UnitImportFormat.CSV, stream(csv));
+
+        assertEquals(3, response.getImported());
+        assertEquals(2, response.getRejected());
+        assertEquals(3, response.getErrors().get(0).getRow());
+        assertEquals(4, response.getErrors().get(1).getRow());
+        assertEquals("numberOfRooms must be positive", response.getErrors().get(1).getMessage());
+        assertEquals("Two rooms, \"sea\" side", jdbcTemplate.queryForObject(
+                "SELECT description FROM units WHERE title = 'Harbour view'", String.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT description FROM units WHERE title = 'Garden house'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM events e JOIN units u ON u.id = e.entity_id "
+                + "WHERE e.entity_type = 'UNIT' AND e.event_type = 'CREATED' AND u.title = 'Loft' "
+                + "AND e.payload ->> 'floor' = '9'", Integer.class));
+    }
+
+    @Test
+    void importUnits_ndjsonShouldSkipMalformedLines() {
+        String ndjson = """
+                {"title":"Ndjson flat","type":"FLAT","numberOfRooms":1,"costPerDay":60,"floor":2}
+                {"title":"Cut off",
+                
+                {"title":"Ndjson home","type":"HOME","numberOfRooms":3,"costPerDay":90,"floor":0}
+                """;
+
+        UnitImportResponse response = unitService.importUnits(1L, UnitImportFormat.NDJSON, stream(ndjson));
+
+        assertEquals(2, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM units WHERE title LIKE 'Ndjson %'", Integer.class));
+    }
+
+    @Test
+    void importUnits_shouldReportRowsTheTableWouldRejectWithoutFailingTheirChunk() {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Constraint ok\",\"type\":\"FLAT\",\"numberOfRooms\":1,\"costPerDay\":60,\"floor\":2}",
+                "{\"title\":\"" + "x".repeat(256) + "\",\"type\":\"FLAT\",\"numberOfRooms\":1,\"costPerDay\":60,\"floor\":2}",
+                "null",
+                "{\"title\":\"Constraint cheap\",\"type\":\"FLAT\",\"numberOfRooms\":1,\"costPerDay\":0.001,\"floor\":2}",
+                "{\"title\":\"Constraint nul\\u0000\",\"type\":\"FLAT\",\"numberOfRooms\":1,\"costPerDay\":60,\"floor\":2}");
+
+        UnitImportResponse response = unitService.importUnits(1L, UnitImportFormat.NDJSON, stream(ndjson));
+
+        assertEquals(1, response.getImported());
+        assertEquals(4, response.getRejected());
+        assertEquals("title must be at most 255 characters", response.getErrors().get(0).getMessage());
+        assertEquals(3, response.getErrors().get(1).getRow());
+        assertEquals("row is empty", response.getErrors().get(1).getMessage());
+        assertEquals(4, response.getErrors().get(2).getRow());
+        assertEquals(5, response.getErrors().get(3).getRow());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM units WHERE title LIKE 'Constraint %'", Integer.class));
+    }
+
+    @Test
+    void importUnits_shouldRejectUnknownOwner() {
+        assertThrows(EntityNotFoundException.class,
+                () -> unitService.importUnits(-1L, UnitImportFormat.NDJSON, stream("")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
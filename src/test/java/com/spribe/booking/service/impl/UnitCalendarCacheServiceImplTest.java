@@ -0,0 +1,66 @@
+package com.spribe.booking.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UnitCalendarCacheServiceImplTest {
+
+    private UnitCalendarCacheServiceImpl service;
+    private StringRedisTemplate stringRedisTemplate;
+    private ValueOperations<String, String> valueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOps);
+        service = new UnitCalendarCacheServiceImpl(stringRedisTemplate);
+    }
+
+    @Test
+    void putMonth_shouldStoreOneFlagPerDay() {
+        boolean[] days = new boolean[28];
+        days[0] = true;
+        days[27] = true;
+
+        service.putMonth(7L, YearMonth.of(2025, 2), days);
+
+        verify(valueOps).set(eq("unit_calendar:7:2025-02"), eq("1" + "0".repeat(26) + "1"), any(Duration.class));
+    }
+
+    @Test
+    void getCachedMonths_shouldSkipMissingAndMalformedMonths() {
+        String august = "0".repeat(30) + "1";
+        when(valueOps.multiGet(List.of("unit_calendar:7:2025-07", "unit_calendar:7:2025-08", "unit_calendar:7:2025-09")))
+                .thenReturn(Arrays.asList(null, august, "01"));
+
+        Map<YearMonth, boolean[]> cached = service.getCachedMonths(7L,
+                List.of(YearMonth.of(2025, 7), YearMonth.of(2025, 8), YearMonth.of(2025, 9)));
+
+        assertEquals(1, cached.size());
+        assertTrue(cached.get(YearMonth.of(2025, 8))[30]);
+        assertFalse(cached.get(YearMonth.of(2025, 8))[0]);
+    }
+
+    @Test
+    void evict_shouldDeleteEveryMonthTouchedByRange() {
+        service.evict(7L, LocalDate.of(2025, 7, 30), LocalDate.of(2025, 9, 2));
+
+        verify(stringRedisTemplate).delete(List.of("unit_calendar:7:2025-07", "unit_calendar:7:2025-08", "unit_calendar:7:2025-09"));
+    }
+}
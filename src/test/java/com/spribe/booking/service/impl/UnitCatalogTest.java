@@ -0,0 +1,152 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.enums.UnitType;
+import com.spribe.booking.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnitCatalogTest {
+
+    private UnitCatalog catalog;
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        UnitRepository unitRepository = mock(UnitRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        when(unitRepository.streamCatalog()).thenReturn(Stream.of(
+                unit(1L, "120.00", UnitType.FLAT, 2, 3),
+                unit(2L, "80.50", UnitType.HOME, 4, 1),
+                unit(3L, "120.00", UnitType.FLAT, 1, 5),
+                unit(4L, "45.99", UnitType.APARTMENTS, 2, 3),
+                unit(5L, "300.00", UnitType.FLAT, 2, 9)
+        ));
+        catalog = new UnitCatalog(unitRepository, availabilityIndex, true);
+        catalog.load();
+    }
+
+    @Test
+    void search_shouldSortByKeyThenIdInBothDirections() {
+        UnitFilterRequest filter = filter("costPerDay", "asc");
+        assertEquals(List.of(4L, 2L, 1L, 3L, 5L), ids(catalog.search(filter)));
+
+        filter.setSortDirection("desc");
+        assertEquals(List.of(5L, 3L, 1L, 2L, 4L), ids(catalog.search(filter)));
+    }
+
+    @Test
+    void search_shouldApplyEveryFilterAndCountTotal() {
+        UnitFilterRequest filter = filter("floor", "asc");
+        filter.setType(UnitType.FLAT);
+        filter.setMinCost(new BigDecimal("100"));
+        filter.setMaxCost(new BigDecimal("299.999"));
+        filter.setNumberOfRooms(2);
+
+        PaginatedResponse<UnitResponse> response = catalog.search(filter);
+
+        assertEquals(List.of(1L), ids(response));
+        assertEquals(1L, response.getTotalElements());
+        assertEquals(new BigDecimal("120.00"), response.getContent().get(0).getCostPerDay());
+    }
+
+    @Test
+    void search_shouldPageAndSkipTotalWhenAsked() {
+        UnitFilterRequest filter = filter("id", "asc");
+        filter.setSize(2);
+        filter.setPage(2);
+
+        PaginatedResponse<UnitResponse> response = catalog.search(filter);
+        assertEquals(List.of(3L, 4L), ids(response));
+        assertEquals(5L, response.getTotalElements());
+
+        filter.setIncludeTotal(false);
+        assertNull(catalog.search(filter).getTotalElements());
+    }
+
+    @Test
+    void search_shouldFilterDatesThroughAvailabilityIndex() {
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        LocalDate end = LocalDate.of(2025, 8, 5);
+        when(availabilityIndex.isAuthoritative()).thenReturn(true);
+        when(availabilityIndex.isAvailable(any(), eq(start), eq(end))).thenReturn(true);
+        when(availabilityIndex.isAvailable(eq(1L), eq(start), eq(end))).thenReturn(false);
+        UnitFilterRequest filter = filter("costPerDay", "asc");
+        filter.setStartDate(start);
+        filter.setEndDate(end);
+
+        assertTrue(catalog.canServe(filter));
+        assertEquals(List.of(4L, 2L, 3L, 5L), ids(catalog.search(filter)));
+    }
+
+    @Test
+    void canServe_shouldDeclineDatedSearchesWhileOtherNodesMayBook() {
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.isAuthoritative()).thenReturn(false);
+        UnitFilterRequest filter = filter("costPerDay", "asc");
+        filter.setStartDate(LocalDate.of(2025, 8, 1));
+        filter.setEndDate(LocalDate.of(2025, 8, 5));
+
+        assertFalse(catalog.canServe(filter));
+        assertTrue(catalog.canServe(filter("costPerDay", "asc")));
+    }
+
+    @Test
+    void search_shouldClampCostBoundsBeyondTheCentsRange() {
+        UnitFilterRequest filter = filter("costPerDay", "asc");
+        filter.setMinCost(new BigDecimal("-1e30"));
+        filter.setMaxCost(new BigDecimal("1e30"));
+        assertEquals(List.of(4L, 2L, 1L, 3L, 5L), ids(catalog.search(filter)));
+
+        filter.setMinCost(new BigDecimal("1e30"));
+        filter.setMaxCost(null);
+        assertEquals(List.of(), ids(catalog.search(filter)));
+    }
+
+    @Test
+    void addUnit_shouldPublishNewSnapshotAndIgnoreDuplicates() {
+        catalog.addUnit(unit(6L, "100.00", UnitType.HOME, 3, 2));
+        catalog.addUnit(unit(6L, "100.00", UnitType.HOME, 3, 2));
+
+        assertEquals(List.of(4L, 2L, 6L, 1L, 3L, 5L), ids(catalog.search(filter("costPerDay", "asc"))));
+        assertEquals(List.of(2L, 6L, 1L, 4L, 5L, 3L), ids(catalog.search(filter("floor", "asc"))));
+    }
+
+    @Test
+    void canServe_shouldDeclineCursorModeAndUnindexedSorts() {
+        UnitFilterRequest cursor = filter("costPerDay", "asc");
+        cursor.setCursorMode(true);
+
+        assertFalse(catalog.canServe(cursor));
+        assertFalse(catalog.canServe(filter("title", "asc")));
+        assertTrue(catalog.canServe(filter("numberOfRooms", "desc")));
+    }
+
+    private static UnitFilterRequest filter(String sortBy, String direction) {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setSortBy(sortBy);
+        filter.setSortDirection(direction);
+        return filter;
+    }
+
+    private static List<Long> ids(PaginatedResponse<UnitResponse> response) {
+        return response.getContent().stream().map(UnitResponse::getId).toList();
+    }
+
+    private static UnitResponse unit(Long id, String cost, UnitType type, int rooms, int floor) {
+        return new UnitResponse(id, "Unit " + id, "Test unit", new BigDecimal(cost), type, (short) rooms, (short) floor);
+    }
+}
@@ -0,0 +1,69 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.UnitFacets;
+import com.spribe.booking.dto.UnitFilterRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UnitFacetCacheTest {
+
+    private UnitFacetCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnitFacetCache(mock(RedisMessageListenerContainer.class));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldShareEntryBetweenEquivalentFilters() {
+        UnitFilterRequest first = filter(null, null);
+        first.setMinCost(new BigDecimal("50.00"));
+        first.setPage(3);
+        UnitFilterRequest second = filter(null, null);
+        second.setMinCost(new BigDecimal("50"));
+        second.setSortBy("floor");
+
+        cache.get(first, this::load);
+        cache.get(second, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onInvalidationMessage_shouldDropOnlyOverlappingDatedEntries() {
+        LocalDate aug1 = LocalDate.of(2025, 8, 1);
+        cache.get(filter(aug1, aug1.plusDays(9)), this::load);
+        cache.get(filter(aug1.plusDays(20), aug1.plusDays(25)), this::load);
+        cache.get(filter(null, null), this::load);
+
+        cache.onInvalidationMessage(aug1.plusDays(5) + ":" + aug1.plusDays(6));
+
+        cache.get(filter(aug1, aug1.plusDays(9)), this::load);
+        cache.get(filter(aug1.plusDays(20), aug1.plusDays(25)), this::load);
+        cache.get(filter(null, null), this::load);
+        assertEquals(4, loads.get());
+    }
+
+    private UnitFacets load() {
+        loads.incrementAndGet();
+        return new UnitFacets(Map.of(), Map.of(), Map.of());
+    }
+
+    private static UnitFilterRequest filter(LocalDate start, LocalDate end) {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setStartDate(start);
+        filter.setEndDate(end);
+        return filter;
+    }
+}
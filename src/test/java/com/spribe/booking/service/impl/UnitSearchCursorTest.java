@@ -0,0 +1,23 @@
+package com.spribe.booking.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitSearchCursorTest {
+
+    @Test
+    void encodeDecode_shouldRoundTrip() {
+        UnitSearchCursor cursor = new UnitSearchCursor("costPerDay", "desc", "120.50", 42L);
+
+        UnitSearchCursor decoded = UnitSearchCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_shouldRejectGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> UnitSearchCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> UnitSearchCursor.decode("Zm9vfGJhcg"));
+    }
+}
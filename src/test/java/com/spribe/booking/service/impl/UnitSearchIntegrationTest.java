@@ -0,0 +1,192 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.PaginatedResponse;
+import com.spribe.booking.dto.UnitFacets;
+import com.spribe.booking.dto.UnitFilterRequest;
+import com.spribe.booking.dto.UnitResponse;
+import com.spribe.booking.enums.UnitType;
+import com.spribe.booking.service.UnitService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitSearchIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchUnits_shouldIssueOneCountAndOneProjectionQuery() {
+        UnitFilterRequest filter = filter();
+        filter.setStartDate(LocalDate.of(2025, 8, 1));
+        filter.setEndDate(LocalDate.of(2025, 8, 10));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PaginatedResponse<UnitResponse> response = unitService.searchUnits(filter);
+
+        assertFalse(response.getContent().isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void searchUnits_shouldExcludeUnitsWithActiveOverlappingBookingsFromPageAndTotal() {
+        // a price band of its own, so the seeded units stay out of the result
+        Long free = newUnit("9001.00");
+        Long booked = newUnit("9002.00");
+        Long touched = newUnit("9003.00");
+        Long cancelled = newUnit("9004.00");
+        Long later = newUnit("9005.00");
+        LocalDate start = LocalDate.of(2030, 6, 10);
+        LocalDate end = LocalDate.of(2030, 6, 14);
+        insertBooking(booked, start.plusDays(1), start.plusDays(2), "PAID");
+        insertBooking(touched, end, end.plusDays(3), "PENDING");
+        insertBooking(cancelled, start, end, "CANCELLED");
+        insertBooking(later, end.plusDays(1), end.plusDays(3), "CONFIRMED");
+
+        UnitFilterRequest filter = filter();
+        filter.setType(null);
+        filter.setSortDirection("asc");
+        filter.setMinCost(new BigDecimal("9001.00"));
+        filter.setMaxCost(new BigDecimal("9005.00"));
+        filter.setStartDate(start);
+        filter.setEndDate(end);
+        PaginatedResponse<UnitResponse> response = unitService.searchUnits(filter);
+
+        assertEquals(List.of(free, cancelled, later), response.getContent().stream().map(UnitResponse::getId).toList());
+        assertEquals(3L, response.getTotalElements());
+
+        filter.setCursorMode(true);
+        filter.setIncludeTotal(false);
+        assertEquals(List.of(free, cancelled, later),
+                unitService.searchUnits(filter).getContent().stream().map(UnitResponse::getId).toList());
+    }
+
+    @Test
+    void searchUnits_shouldRejectInvertedDateRange() {
+        UnitFilterRequest filter = filter();
+        filter.setStartDate(LocalDate.of(2030, 6, 14));
+        filter.setEndDate(LocalDate.of(2030, 6, 10));
+
+        assertThrows(IllegalArgumentException.class, () -> unitService.searchUnits(filter));
+        assertThrows(IllegalArgumentException.class, () -> unitService.exportUnits(filter, unit -> { }));
+    }
+
+    @Test
+    void cursorMode_shouldVisitSameRowsAsOffsetPagination() {
+        List<Long> byOffset = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            UnitFilterRequest filter = filter();
+            filter.setPage(page);
+            PaginatedResponse<UnitResponse> response = unitService.searchUnits(filter);
+            response.getContent().forEach(unit -> byOffset.add(unit.getId()));
+            if (response.getContent().size() < filter.getSize()) {
+                break;
+            }
+        }
+
+        List<Long> byCursor = new ArrayList<>();
+        String cursor = null;
+        do {
+            UnitFilterRequest filter = filter();
+            filter.setCursorMode(true);
+            filter.setIncludeTotal(false);
+            filter.setCursor(cursor);
+            PaginatedResponse<UnitResponse> response = unitService.searchUnits(filter);
+            assertNull(response.getTotalElements());
+            response.getContent().forEach(unit -> byCursor.add(unit.getId()));
+            cursor = response.getNextCursor();
+        } while (cursor != null);
+
+        assertFalse(byOffset.isEmpty());
+        assertEquals(byOffset, byCursor);
+    }
+
+    @Test
+    void cursorMode_shouldRejectSortFieldWithoutIndex() {
+        UnitFilterRequest filter = filter();
+        filter.setCursorMode(true);
+        filter.setSortBy("title");
+
+        assertThrows(IllegalArgumentException.class, () -> unitService.searchUnits(filter));
+    }
+
+    @Test
+    void facets_shouldCountWholeFilterInOneQueryAndServeRepeatsFromCache() {
+        UnitFilterRequest filter = filter();
+        filter.setType(null);
+        filter.setMinCost(new BigDecimal("20.00"));
+        filter.setFacets(true);
+        filter.setIncludeTotal(true);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PaginatedResponse<UnitResponse> first = unitService.searchUnits(filter);
+        long firstStatements = statistics.getPrepareStatementCount();
+
+        UnitFacets facets = first.getFacets();
+        assertEquals(3, firstStatements);
+        assertEquals(first.getTotalElements(), facets.getByType().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(first.getTotalElements(), facets.getByNumberOfRooms().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(first.getTotalElements(), facets.getByPriceBucket().values().stream().mapToLong(Long::longValue).sum());
+
+        filter.setMinCost(new BigDecimal("20"));
+        filter.setPage(2);
+        statistics.clear();
+        PaginatedResponse<UnitResponse> second = unitService.searchUnits(filter);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(facets, second.getFacets());
+    }
+
+    @Test
+    void exportUnits_shouldStreamEveryMatchingRowInIdOrder() {
+        UnitFilterRequest filter = filter();
+        filter.setIncludeTotal(true);
+        long total = unitService.searchUnits(filter).getTotalElements();
+
+        List<Long> exported = new ArrayList<>();
+        unitService.exportUnits(filter, unit -> exported.add(unit.getId()));
+
+        assertEquals(total, exported.size());
+        assertEquals(exported.stream().sorted().toList(), exported);
+    }
+
+    private Long newUnit(String cost) {
+        return jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Dated search unit', 'Availability filter test', ?, 'FLAT', 1, 1) RETURNING id", Long.class,
+                new BigDecimal(cost));
+    }
+
+    private void insertBooking(Long unitId, LocalDate start, LocalDate end, String status) {
+        jdbcTemplate.update("INSERT INTO bookings (unit_id, user_id, start_date, end_date, status) VALUES (?, 1, ?, ?, ?)",
+                unitId, start, end, status);
+    }
+
+    private static UnitFilterRequest filter() {
+        UnitFilterRequest filter = new UnitFilterRequest();
+        filter.setType(UnitType.FLAT);
+        filter.setSortBy("costPerDay");
+        filter.setSortDirection("desc");
+        filter.setSize(7);
+        return filter;
+    }
+}
@@ -1,24 +1,36 @@
 package com.spribe.booking.service.impl;
 
+import com.spribe.booking.dto.UnitAvailabilityRequest;
+import com.spribe.booking.dto.UnitCalendarDay;
+import com.spribe.booking.dto.UnitCalendarResponse;
 import com.spribe.booking.dto.UnitCreateRequest;
-import com.spribe.booking.entity.Booking;
 import com.spribe.booking.entity.Unit;
 import com.spribe.booking.enums.UnitType;
 import com.spribe.booking.repository.BookingRepository;
 import com.spribe.booking.repository.UnitRepository;
+import com.spribe.booking.repository.projection.BookingPeriod;
+import com.spribe.booking.repository.projection.UnitOverlapCount;
 import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
-import java.util.Collections;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class UnitServiceImplTest {
@@ -28,6 +40,10 @@ class UnitServiceImplTest {
     private BookingRepository bookingRepository;
     private EntityManager entityManager;
     private UnitAvailabilityCacheService cacheService;
+    private AvailabilityIndex availabilityIndex;
+    private UnitCalendarCacheService calendarCache;
+    private UnitFacetCache facetCache;
+    private UnitCatalog unitCatalog;
 
     @BeforeEach
     void setUp() {
@@ -35,30 +51,53 @@ class UnitServiceImplTest {
         bookingRepository = mock(BookingRepository.class);
         entityManager = mock(EntityManager.class);
         cacheService = mock(UnitAvailabilityCacheService.class);
-        service = new UnitServiceImpl(unitRepository, bookingRepository, entityManager, cacheService);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        calendarCache = mock(UnitCalendarCacheService.class);
+        facetCache = mock(UnitFacetCache.class);
+        unitCatalog = mock(UnitCatalog.class);
+        service = new UnitServiceImpl(unitRepository, bookingRepository, entityManager, cacheService, availabilityIndex,
+                calendarCache, facetCache, unitCatalog, mock(UnitBulkImporter.class));
     }
 
     @Test
-    void getAvailableUnitCount_shouldReturnCorrectCount() {
-        Unit u1 = new Unit(); u1.setId(1L);
-        Unit u2 = new Unit(); u2.setId(2L);
+    void getAvailableUnitCount_shouldCountInDatabaseWhileOtherNodesMayWrite() {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(3);
+        UnitAvailabilityCacheService.Lookup miss = new UnitAvailabilityCacheService.Lookup(start, end, null, 3, 0);
+        when(cacheService.lookupAvailableCount(start, end)).thenReturn(miss);
+        when(availabilityIndex.isAuthoritative()).thenReturn(false);
+        when(unitRepository.countAvailable(start, end)).thenReturn(1L);
 
-        when(unitRepository.findAll()).thenReturn(List.of(u1, u2));
+        long count = service.getAvailableUnitCount(start, end);
 
-        // Unit 1 is booked, unit 2 is free
-        when(bookingRepository.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                eq(1L), any(), any(), any()))
-                .thenReturn(List.of(new Booking()));
-
-        when(bookingRepository.findByUnitIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                eq(2L), any(), any(), any()))
-                .thenReturn(Collections.emptyList());
+        assertEquals(1, count);
+        verify(cacheService).putAvailableCount(miss, 1L);
+        verify(availabilityIndex, never()).countAvailable(any(), any());
+    }
 
-        when(cacheService.getCachedAvailableCount(any(), any())).thenReturn(null);
+    @Test
+    void getAvailableUnitCount_shouldRejectInvertedRangeBeforeAnyLookup() {
+        LocalDate start = LocalDate.now();
 
-        long count = service.getAvailableUnitCount(LocalDate.now(), LocalDate.now().plusDays(3));
+        assertThrows(IllegalArgumentException.class, () -> service.getAvailableUnitCount(start, start.minusDays(1)));
+        verifyNoInteractions(cacheService, unitRepository);
+    }
 
-        assertEquals(1, count);
+    @Test
+    void getAvailableUnitCount_shouldUseIndexWhenItSeesEveryWrite() {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(3);
+        UnitAvailabilityCacheService.Lookup miss = new UnitAvailabilityCacheService.Lookup(start, end, null, 3, 0);
+        when(cacheService.lookupAvailableCount(start, end)).thenReturn(miss);
+        when(availabilityIndex.isAuthoritative()).thenReturn(true);
+        when(availabilityIndex.countAvailable(start, end)).thenReturn(7L);
+
+        long count = service.getAvailableUnitCount(start, end);
+
+        assertEquals(7, count);
+        verify(cacheService).putAvailableCount(miss, 7L);
+        verify(unitRepository, never()).countAvailable(any(), any());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -90,4 +129,111 @@ class UnitServiceImplTest {
         assertEquals(expected.getFloor(), result.getFloor());
     }
 
-}
\ No newline at end of file
+    @Test
+    void checkAvailability_shouldAnswerFromOneGroupedQueryInRequestOrder() {
+        UnitAvailabilityRequest request = new UnitAvailabilityRequest();
+        request.setUnitIds(List.of(3L, 1L, 2L, 99L));
+        request.setStartDate(LocalDate.of(2025, 8, 1));
+        request.setEndDate(LocalDate.of(2025, 8, 10));
+        when(unitRepository.countOverlappingBookings(anyCollection(), any(), any())).thenReturn(List.of(
+                overlapCount(1L, 0), overlapCount(2L, 2), overlapCount(3L, 0)));
+
+        Map<Long, Boolean> result = service.checkAvailability(request);
+
+        assertEquals(List.of(3L, 1L, 2L), List.copyOf(result.keySet()));
+        assertTrue(result.get(1L));
+        assertFalse(result.get(2L));
+        assertTrue(result.get(3L));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void checkAvailability_shouldRejectTooManyUnits() {
+        UnitAvailabilityRequest request = new UnitAvailabilityRequest();
+        request.setUnitIds(LongStream.rangeClosed(1, 501).boxed().toList());
+        request.setStartDate(LocalDate.of(2025, 8, 1));
+        request.setEndDate(LocalDate.of(2025, 8, 10));
+
+        assertThrows(IllegalArgumentException.class, () -> service.checkAvailability(request));
+    }
+
+    @Test
+    void sweepBookedDays_shouldMarkEveryDayCoveredByAnyBooking() {
+        LocalDate aug1 = LocalDate.of(2025, 8, 1);
+        List<BookingPeriod> periods = List.of(
+                period(aug1.minusDays(3), aug1),
+                period(aug1.plusDays(3), aug1.plusDays(8)),
+                period(aug1.plusDays(4), aug1.plusDays(5)),
+                period(aug1.plusDays(8), aug1.plusDays(9)));
+
+        boolean[] booked = UnitServiceImpl.sweepBookedDays(periods, aug1, aug1.plusDays(11));
+
+        boolean[] expected = {true, false, false, true, true, true, true, true, true, true, false, false};
+        assertArrayEquals(expected, booked);
+    }
+
+    @Test
+    void getCalendar_shouldComputeMissingMonthsWithOneQueryAndCacheThem() {
+        LocalDate from = LocalDate.of(2025, 7, 30);
+        LocalDate to = LocalDate.of(2025, 8, 2);
+        boolean[] july = new boolean[31];
+        july[29] = true;
+        when(calendarCache.getCachedMonths(eq(5L), any())).thenReturn(Map.of(YearMonth.of(2025, 7), july));
+        when(unitRepository.findBookedPeriods(eq(5L), eq(LocalDate.of(2025, 8, 1)), eq(LocalDate.of(2025, 8, 31))))
+                .thenReturn(List.of(period(LocalDate.of(2025, 8, 2), LocalDate.of(2025, 8, 4))));
+
+        UnitCalendarResponse calendar = service.getCalendar(5L, from, to);
+
+        assertEquals(List.of(false, true, true, false),
+                calendar.getDays().stream().map(UnitCalendarDay::isAvailable).toList());
+        verify(calendarCache).putMonth(eq(5L), eq(YearMonth.of(2025, 8)), any());
+        verify(calendarCache, never()).putMonth(eq(5L), eq(YearMonth.of(2025, 7)), any());
+    }
+
+    @Test
+    void getCalendar_shouldFailForUnknownUnit() {
+        when(calendarCache.getCachedMonths(any(), any())).thenReturn(Map.of());
+        when(unitRepository.findBookedPeriods(any(), any(), any())).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> service.getCalendar(5L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31)));
+    }
+
+    private static BookingPeriod period(LocalDate start, LocalDate end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getUnitId() {
+                return 5L;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return end;
+            }
+        };
+    }
+
+    private static UnitOverlapCount overlapCount(Long unitId, long overlapping) {
+        return new UnitOverlapCount() {
+            @Override
+            public Long getUnitId() {
+                return unitId;
+            }
+
+            @Override
+            public Long getOverlapping() {
+                return overlapping;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UnpaidBookingExpirerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireUnpaid_shouldInvalidateMergedRangesOncePerChunk() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        UnitAvailabilityCacheService cacheService = mock(UnitAvailabilityCacheService.class);
+        AvailabilityIndex availabilityIndex = mock(AvailabilityIndex.class);
+        UnitCalendarCacheService calendarCache = mock(UnitCalendarCacheService.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenReturn(List.of(
+                expired(1L, 10L, "2025-08-01", "2025-08-03"),
+                expired(2L, 11L, "2025-08-02", "2025-08-05"),
+                expired(3L, 10L, "2025-08-06", "2025-08-07"),
+                expired(4L, 12L, "2025-09-10", "2025-09-12")));
+        UnpaidBookingExpirer expirer = new UnpaidBookingExpirer(jdbcTemplate, transactionTemplate, cacheService,
+                availabilityIndex, calendarCache, Duration.ofMinutes(15), 100);
+
+        assertEquals(4, expirer.expireUnpaid());
+
+        verify(cacheService).invalidate(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 7));
+        verify(cacheService).invalidate(LocalDate.of(2025, 9, 10), LocalDate.of(2025, 9, 12));
+        verifyNoMoreInteractions(cacheService);
+        verify(calendarCache).evict(10L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3));
+        verify(calendarCache).evict(10L, LocalDate.of(2025, 8, 6), LocalDate.of(2025, 8, 7));
+        verify(availabilityIndex).removeBooking(2L, 11L);
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireUnpaid_shouldWriteNothingOnceTheLeaseIsLost() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        UnitAvailabilityCacheService cacheService = mock(UnitAvailabilityCacheService.class);
+        ClusterJob job = mock(ClusterJob.class);
+        ClusterJob.JobLease lease = new ClusterJob.JobLease("expire-unpaid-bookings", "node-1", 3);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(job.fence(lease)).thenReturn(false);
+        UnpaidBookingExpirer expirer = new UnpaidBookingExpirer(jdbcTemplate, transactionTemplate, cacheService,
+                mock(AvailabilityIndex.class), mock(UnitCalendarCacheService.class), Duration.ofMinutes(15), 100);
+
+        assertEquals(0, expirer.expireUnpaid(job, lease));
+
+        verify(job).fence(lease);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(), any());
+        verifyNoInteractions(cacheService);
+    }
+
+    private static UnpaidBookingExpirer.ExpiredBooking expired(Long id, Long unitId, String start, String end) {
+        return new UnpaidBookingExpirer.ExpiredBooking(id, unitId, LocalDate.parse(start), LocalDate.parse(end));
+    }
+}
@@ -0,0 +1,114 @@
+package com.spribe.booking.service.impl;
+
+import com.spribe.booking.dto.BookingCreateRequest;
+import com.spribe.booking.entity.Booking;
+import com.spribe.booking.service.BookingService;
+import com.spribe.booking.service.UnitAvailabilityCacheService;
+import com.spribe.booking.service.UnitCalendarCacheService;
+import com.spribe.booking.support.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set-based expiry against a real database: due bookings are expired in chunks with their payments failed,
+ * fresh ones are left alone, and the due rows are found through the partial index. The availability index is
+ * only maintained on a single node, so the test runs as one to check that expiry frees the units in it too.
+ */
+@TestPropertySource(properties = "booking.availability-index.single-node=true")
+class UnpaidBookingExpiryIntegrationTest extends AbstractPostgresIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UnitAvailabilityCacheService cacheService;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private UnitCalendarCacheService calendarCache;
+
+    @Test
+    void expireUnpaid_shouldExpireDueBookingsInChunksAndFailTheirPayments() {
+        List<Booking> due = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            due.add(bookingService.bookUnit(request(newUnit(), "2028-01-0" + (i + 1), "2028-01-0" + (i + 2))));
+        }
+        Booking fresh = bookingService.bookUnit(request(newUnit(), "2028-01-01", "2028-01-02"));
+        for (Booking booking : due) {
+            jdbcTemplate.update("UPDATE bookings SET created_at = created_at - interval '1 hour' WHERE id = ?",
+                    booking.getId());
+        }
+        UnpaidBookingExpirer expirer = new UnpaidBookingExpirer(jdbcTemplate, transactionTemplate, cacheService,
+                availabilityIndex, calendarCache, Duration.ofMinutes(15), 2);
+
+        int expired = expirer.expireUnpaid();
+
+        assertTrue(expired >= due.size(), "expired " + expired);
+        for (Booking booking : due) {
+            assertEquals("EXPIRED", status("bookings", "id", booking.getId()));
+            assertEquals("FAILED", status("payments", "booking_id", booking.getId()));
+            assertTrue(availabilityIndex.isAvailable(booking.getUnit().getId(), booking.getStartDate(), booking.getEndDate()));
+        }
+        assertEquals("PENDING", status("bookings", "id", fresh.getId()));
+        assertEquals("PENDING", status("payments", "booking_id", fresh.getId()));
+    }
+
+    @Test
+    void dueBookingsShouldBeFoundThroughThePartialIndex() {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // the test table is tiny; make the planner show which index it would use on a large one
+                statement.execute("SET enable_seqscan = off");
+                StringBuilder lines = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("EXPLAIN SELECT id FROM bookings "
+                        + "WHERE status = 'PENDING' AND created_at < now() ORDER BY created_at LIMIT 1000")) {
+                    while (rs.next()) {
+                        lines.append(rs.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("RESET enable_seqscan");
+                return lines.toString();
+            }
+        });
+
+        assertTrue(plan.contains("idx_bookings_pending_created_at"), plan);
+    }
+
+    private String status(String table, String column, Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + table + " WHERE " + column + " = ?", String.class, id);
+    }
+
+    private Long newUnit() {
+        return jdbcTemplate.queryForObject("INSERT INTO units (owner_id, title, description, cost_per_day, type, number_of_rooms, floor) "
+                + "VALUES (1, 'Expiry unit', 'Expiry test', 100, 'FLAT', 1, 1) RETURNING id", Long.class);
+    }
+
+    private static BookingCreateRequest request(Long unitId, String start, String end) {
+        BookingCreateRequest request = new BookingCreateRequest();
+        request.setUserId(1L);
+        request.setUnitId(unitId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+}
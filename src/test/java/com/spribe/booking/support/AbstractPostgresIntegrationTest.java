@@ -0,0 +1,23 @@
+package com.spribe.booking.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base class for tests that need a real Postgres and Redis. The containers are shared by every subclass so the
+ * Spring context cache stays valid between test classes; tests are skipped when Docker is not available.
+ * Hibernate statistics are on so tests can assert how many SQL statements an operation issues.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractPostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @ServiceConnection(name = "redis")
+    protected static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7").withExposedPorts(6379);
+}